@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.event;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Durable record of the events published through an {@link EventManager}, allowing listeners subscribing after a
+ * restart to rebuild their state from the events published before it.
+ *
+ * @author GraviteeSource Team
+ */
+public interface EventJournal extends Closeable {
+    /**
+     * Record the event if it is selected by this journal, ignore it otherwise.
+     */
+    void append(Event<?, ?> event);
+
+    /**
+     * Deliver the recorded events of the given types to the listener, in the order they have been recorded. Events
+     * superseded by a more recent event sharing the same key are skipped.
+     */
+    <T extends Enum<T>> void replay(Class<T> eventTypeClass, Set<T> eventTypes, EventListener<T, ?> eventListener);
+
+    /**
+     * Capture the events recorded so far, which the returned replay delivers to the listener as
+     * {@link #replay(Class, Set, EventListener)} does. Capturing is done while appending is blocked, so that it must be
+     * cheap, whereas running the replay must not block appending. The replay must be run once.
+     *
+     * The default implementation replays the events into memory when capturing them.
+     */
+    default <T extends Enum<T>> Runnable prepareReplay(
+        final Class<T> eventTypeClass,
+        final Set<T> eventTypes,
+        final EventListener<T, ?> eventListener
+    ) {
+        List<Event<T, Object>> events = new ArrayList<>();
+        replay(eventTypeClass, eventTypes, (EventListener<T, Object>) events::add);
+        return () -> events.forEach(((EventListener<T, Object>) eventListener)::onEvent);
+    }
+
+    /**
+     * Drop the events superseded by a more recent event sharing the same key.
+     */
+    void compact();
+}
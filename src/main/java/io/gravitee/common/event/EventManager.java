@@ -15,6 +15,8 @@
  */
 package io.gravitee.common.event;
 
+import java.util.function.Consumer;
+
 /**
  * @author David BRASSELY (brasseld at gmail.com)
  */
@@ -30,4 +32,36 @@ public interface EventManager {
     <T extends Enum<T>> void unsubscribeForEvents(final EventListener<T, ?> eventListener, final Class<T> eventTypesClass);
 
     <T extends Enum<T>> void unsubscribeForEvents(final EventListener<T, ?> eventListener, final T... eventTypes);
+
+    /**
+     * Same as {@link #subscribeForEvents(EventListener, Class)} but returns a {@link Subscription} handle which can be used
+     * to unsubscribe the listener later on.
+     */
+    default <T extends Enum<T>> Subscription subscribe(final EventListener<T, ?> eventListener, final Class<T> eventTypeClass) {
+        subscribeForEvents(eventListener, eventTypeClass);
+        return () -> unsubscribeForEvents(eventListener, eventTypeClass);
+    }
+
+    /**
+     * Same as {@link #subscribeForEvents(EventListener, Enum[])} but returns a {@link Subscription} handle which can be used
+     * to unsubscribe the listener later on.
+     */
+    default <T extends Enum<T>> Subscription subscribe(final EventListener<T, ?> eventListener, final T... eventTypes) {
+        subscribeForEvents(eventListener, eventTypes);
+        return () -> unsubscribeForEvents(eventListener, eventTypes);
+    }
+
+    /**
+     * Subscribe the given consumer to all the events matching the given {@link EventSelector}, whatever their enum type
+     * class. As the events may be of any type, the consumer receives them as {@code Event<?, ?>}. Such a subscription is
+     * only removed through the returned {@link Subscription}.
+     *
+     * <p>A selector can not enumerate the event types it matches, so that this method can not be built on the other
+     * subscription methods: the default implementation throws an {@link UnsupportedOperationException}, which keeps
+     * existing implementations compiling. Implementations supporting selectors, such as {@code EventManagerImpl},
+     * override it.</p>
+     */
+    default Subscription subscribe(final Consumer<? super Event<?, ?>> eventConsumer, final EventSelector eventSelector) {
+        throw new UnsupportedOperationException("Subscribing with an event selector is not supported by " + getClass().getName());
+    }
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.event;
+
+/**
+ * Sink receiving the measures taken while dispatching events. All the methods do nothing by default, and an
+ * {@link EventManager} using {@link #NOOP} doesn't take any measure at all.
+ *
+ * @author GraviteeSource Team
+ */
+public interface EventMetrics {
+    EventMetrics NOOP = new EventMetrics() {};
+
+    /**
+     * Called once an event has been delivered to all its listeners.
+     *
+     * @param eventType the type of the published event.
+     * @param listeners the number of listeners the event has been delivered to.
+     * @param dispatchNanos the time elapsed between the publication of the event and the last listener returning.
+     */
+    default void onPublish(Enum<?> eventType, int listeners, long dispatchNanos) {}
+
+    /**
+     * Called when the number of events waiting in a queue to be processed asynchronously changes.
+     *
+     * @param queue the name of the queue.
+     * @param depth the number of events waiting in the queue.
+     */
+    default void onQueueDepth(String queue, int depth) {}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.event;
+
+/**
+ * Selects the events a generic observer is interested in, regardless of their enum type class.
+ *
+ * {@link #supports(Enum)} is evaluated once per event type when the dispatch table is built, so that a selector only
+ * adds cost to the event types it actually matches. {@link #test(Event)} allows refining the selection on each event
+ * (e.g. depending on its content) and is only evaluated for supported event types.
+ *
+ * @author GraviteeSource Team
+ */
+@FunctionalInterface
+public interface EventSelector {
+    boolean supports(Enum<?> eventType);
+
+    default boolean test(Event<?, ?> event) {
+        return true;
+    }
+
+    default EventSelector and(final EventSelector other) {
+        EventSelector self = this;
+        return new EventSelector() {
+            @Override
+            public boolean supports(Enum<?> eventType) {
+                return self.supports(eventType) && other.supports(eventType);
+            }
+
+            @Override
+            public boolean test(Event<?, ?> event) {
+                return self.test(event) && other.test(event);
+            }
+        };
+    }
+
+    /**
+     * Selects all the events, whatever their type.
+     */
+    static EventSelector all() {
+        return eventType -> true;
+    }
+
+    /**
+     * Selects the events whose enum type class is assignable to the given type, typically a marker interface shared by
+     * several event type enums.
+     */
+    static EventSelector typesAssignableTo(final Class<?> type) {
+        return eventType -> type.isAssignableFrom(eventType.getDeclaringClass());
+    }
+
+    /**
+     * Selects the events whose content is an instance of the given type. As the content is only known when the event is
+     * published, this check happens on each event; combine it with another selector using {@link #and(EventSelector)} to
+     * restrict the event types it applies to.
+     */
+    static EventSelector contentInstanceOf(final Class<?> contentType) {
+        return new EventSelector() {
+            @Override
+            public boolean supports(Enum<?> eventType) {
+                return true;
+            }
+
+            @Override
+            public boolean test(Event<?, ?> event) {
+                return contentType.isInstance(event.content());
+            }
+        };
+    }
+}
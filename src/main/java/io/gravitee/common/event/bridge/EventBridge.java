@@ -0,0 +1,361 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.event.bridge;
+
+import io.gravitee.common.component.AbstractLifecycleComponent;
+import io.gravitee.common.event.Event;
+import io.gravitee.common.event.EventManager;
+import io.gravitee.common.event.EventMetrics;
+import io.gravitee.common.event.EventSerializer;
+import io.gravitee.common.event.Subscription;
+import io.gravitee.common.utils.UUID;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Forwards the events of the selected event types published locally to the other nodes of a cluster through an
+ * {@link EventTransport}, and publishes locally the events received from them as {@link BridgedEvent}s.
+ *
+ * Local events are batched until either the maximum batch size or the maximum batch delay is reached. Identical events
+ * (same type and serialized content) published in a row are sent once, other events being sent in their publication
+ * order, and batches bigger than the compression threshold are deflated. Each batch is identified by the node id and a sequence number so that the batches sent by the
+ * node itself or received more than once are discarded.
+ *
+ * @author GraviteeSource Team
+ */
+@Slf4j
+public class EventBridge extends AbstractLifecycleComponent<EventBridge> {
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    private static final Duration DEFAULT_MAX_BATCH_DELAY = Duration.ofMillis(50);
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+    private static final int DEFAULT_DEDUPLICATION_WINDOW = 1024;
+    private static final String QUEUE_NAME = "event-bridge";
+    private static final int MIN_EVENT_SIZE = 2 * Short.BYTES + Integer.BYTES;
+    // Deflate can't compress data more than about 1032 times
+    private static final int MAX_DEFLATE_RATIO = 1032;
+
+    private final EventManager eventManager;
+    private final EventTransport transport;
+    private final EventSerializer serializer;
+    private final String nodeId;
+    private final Map<String, Map<String, Enum<?>>> eventTypes = new HashMap<>();
+    private final int maxBatchSize;
+    private final Duration maxBatchDelay;
+    private final int compressionThreshold;
+    private final EventMetrics metrics;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Object lock = new Object();
+    private final Set<String> receivedBatches;
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private List<PendingEvent> pending = new ArrayList<>();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param eventManager the local event manager.
+     * @param transport the transport used to exchange the events with the other nodes.
+     * @param serializer the serializer used to convert the event contents.
+     * @param nodeId the unique id of this node, generated if not provided.
+     * @param eventTypeClasses the event types to forward.
+     * @param maxBatchSize the maximum number of events per batch, defaults to 100.
+     * @param maxBatchDelay the maximum time an event waits before its batch is sent, defaults to 50ms.
+     * @param compressionThreshold the size in bytes above which a batch is compressed, defaults to 1KB.
+     * @param deduplicationWindow the number of received batch ids remembered to discard duplicates, defaults to 1024.
+     * @param metrics the metrics the number of pending events is reported to.
+     */
+    @Builder
+    public EventBridge(
+        final EventManager eventManager,
+        final EventTransport transport,
+        final EventSerializer serializer,
+        final String nodeId,
+        final Collection<Class<? extends Enum<?>>> eventTypeClasses,
+        final int maxBatchSize,
+        final Duration maxBatchDelay,
+        final int compressionThreshold,
+        final int deduplicationWindow,
+        final EventMetrics metrics
+    ) {
+        this.eventManager = eventManager;
+        this.transport = transport;
+        this.serializer = serializer;
+        this.nodeId = nodeId != null ? nodeId : UUID.toString(UUID.random());
+        for (Class<? extends Enum<?>> eventTypeClass : eventTypeClasses) {
+            Map<String, Enum<?>> constants = new HashMap<>();
+            for (Enum<?> constant : eventTypeClass.getEnumConstants()) {
+                constants.put(constant.name(), constant);
+            }
+            this.eventTypes.put(eventTypeClass.getName(), constants);
+        }
+        this.maxBatchSize = maxBatchSize > 0 ? maxBatchSize : DEFAULT_MAX_BATCH_SIZE;
+        this.maxBatchDelay = maxBatchDelay != null ? maxBatchDelay : DEFAULT_MAX_BATCH_DELAY;
+        this.compressionThreshold = compressionThreshold > 0 ? compressionThreshold : DEFAULT_COMPRESSION_THRESHOLD;
+        this.metrics = metrics != null ? metrics : EventMetrics.NOOP;
+        int window = deduplicationWindow > 0 ? deduplicationWindow : DEFAULT_DEDUPLICATION_WINDOW;
+        this.receivedBatches = Collections.newSetFromMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > window;
+                }
+            }
+        );
+    }
+
+    @Override
+    protected void doStart() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gio-event-bridge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long delay = maxBatchDelay.toMillis();
+        scheduler.scheduleWithFixedDelay(this::flush, delay, delay, TimeUnit.MILLISECONDS);
+
+        subscriptions.add(transport.receive(this::receive));
+        subscriptions.add(
+            eventManager.subscribe(this::forward, eventType -> eventTypes.containsKey(eventType.getDeclaringClass().getName()))
+        );
+    }
+
+    @Override
+    protected void doStop() {
+        subscriptions.forEach(Subscription::unsubscribe);
+        subscriptions.clear();
+        scheduler.shutdown();
+        flush();
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Send the pending events right away.
+     */
+    public void flush() {
+        List<PendingEvent> events;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            events = pending;
+            pending = new ArrayList<>();
+        }
+        metrics.onQueueDepth(QUEUE_NAME, 0);
+
+        try {
+            transport.send(encode(events));
+        } catch (Exception e) {
+            log.warn("Unable to send a batch of {} events to the other nodes", events.size(), e);
+        }
+    }
+
+    private void forward(final Event<?, ?> event) {
+        if (event instanceof BridgedEvent) {
+            // Received from another node, it must not be sent back.
+            return;
+        }
+        if (lifecycle.stopped() || lifecycle.closed()) {
+            log.debug("Event bridge is stopped, event {} is not forwarded", event.type());
+            return;
+        }
+
+        PendingEvent pendingEvent = new PendingEvent(
+            event.type().getDeclaringClass().getName(),
+            event.type().name(),
+            ByteBuffer.wrap(serializer.serialize(event))
+        );
+        int depth;
+        synchronized (lock) {
+            // Only repeated events are merged: dropping an earlier occurrence of an event published again later would
+            // reorder it relatively to the events published in between (e.g. DEPLOY, UNDEPLOY, DEPLOY).
+            if (pending.isEmpty() || !pending.get(pending.size() - 1).equals(pendingEvent)) {
+                pending.add(pendingEvent);
+            }
+            depth = pending.size();
+        }
+        metrics.onQueueDepth(QUEUE_NAME, depth);
+
+        if (depth >= maxBatchSize) {
+            try {
+                scheduler.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // Stopped meanwhile, the pending events are flushed when stopping.
+                log.debug("Event bridge is stopped, pending events are not flushed", e);
+            }
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void receive(final byte[] batch) {
+        try {
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(batch));
+            String origin = input.readUTF();
+            long batchSequence = input.readLong();
+            if (nodeId.equals(origin) || !markReceived(origin + '#' + batchSequence)) {
+                return;
+            }
+
+            boolean compressed = input.readBoolean();
+            byte[] body;
+            if (compressed) {
+                int length = input.readInt();
+                byte[] deflated = new byte[readLength(input, input.available())];
+                input.readFully(deflated);
+                if (length < 0 || length > (long) deflated.length * MAX_DEFLATE_RATIO) {
+                    throw new IOException("Invalid length " + length + " for a batch deflated to " + deflated.length + " bytes");
+                }
+                body = new byte[length];
+                inflate(deflated, body);
+            } else {
+                body = new byte[readLength(input, input.available())];
+                input.readFully(body);
+            }
+
+            DataInputStream events = new DataInputStream(new ByteArrayInputStream(body));
+            // Each event takes at least two empty strings and a content length
+            int count = readLength(events, events.available() / MIN_EVENT_SIZE);
+            for (int i = 0; i < count; i++) {
+                String eventTypeClass = events.readUTF();
+                String eventTypeName = events.readUTF();
+                byte[] content = new byte[readLength(events, events.available())];
+                events.readFully(content);
+
+                Enum eventType = eventTypes.getOrDefault(eventTypeClass, Map.of()).get(eventTypeName);
+                if (eventType == null) {
+                    log.debug("Ignoring event of unknown type {}.{} received from node {}", eventTypeClass, eventTypeName, origin);
+                } else {
+                    eventManager.publishEvent(new BridgedEvent(eventType, serializer.deserialize(eventType, content), origin));
+                }
+            }
+        } catch (IOException | DataFormatException e) {
+            log.warn("Unable to decode a batch of events received from another node", e);
+        }
+    }
+
+    /**
+     * Read a length or a count from a received batch, rejecting the values that can't be backed by the remaining bytes so
+     * that a malformed batch can't trigger huge allocations.
+     */
+    private static int readLength(final DataInputStream input, final int maximum) throws IOException {
+        int length = input.readInt();
+        if (length < 0 || length > maximum) {
+            throw new IOException("Invalid length " + length + ", at most " + maximum + " expected");
+        }
+        return length;
+    }
+
+    private boolean markReceived(final String batchId) {
+        synchronized (receivedBatches) {
+            return receivedBatches.add(batchId);
+        }
+    }
+
+    private byte[] encode(final List<PendingEvent> events) {
+        try {
+            ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+            DataOutputStream body = new DataOutputStream(bodyBytes);
+            body.writeInt(events.size());
+            for (PendingEvent event : events) {
+                body.writeUTF(event.eventTypeClass());
+                body.writeUTF(event.eventType());
+                body.writeInt(event.content().remaining());
+                body.write(event.content().array());
+            }
+
+            ByteArrayOutputStream batchBytes = new ByteArrayOutputStream();
+            DataOutputStream batch = new DataOutputStream(batchBytes);
+            batch.writeUTF(nodeId);
+            batch.writeLong(sequence.incrementAndGet());
+            byte[] raw = bodyBytes.toByteArray();
+            if (raw.length > compressionThreshold) {
+                byte[] deflated = deflate(raw);
+                batch.writeBoolean(true);
+                batch.writeInt(raw.length);
+                batch.writeInt(deflated.length);
+                batch.write(deflated);
+            } else {
+                batch.writeBoolean(false);
+                batch.writeInt(raw.length);
+                batch.write(raw);
+            }
+            return batchBytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to encode a batch of events", e);
+        }
+    }
+
+    private static byte[] deflate(final byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(raw.length / 2);
+            byte[] chunk = new byte[4096];
+            while (!deflater.finished()) {
+                output.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void inflate(final byte[] deflated, final byte[] raw) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(deflated);
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, raw.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated batch");
+                }
+                length += inflated;
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private record PendingEvent(String eventTypeClass, String eventType, ByteBuffer content) {}
+}
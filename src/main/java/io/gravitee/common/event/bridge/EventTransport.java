@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.event.bridge;
+
+import io.gravitee.common.event.Subscription;
+import java.util.function.Consumer;
+
+/**
+ * Transport used by an {@link EventBridge} to exchange batches of events with the other nodes of a cluster.
+ *
+ * Implementations are not expected to guarantee exactly-once delivery: batches delivered more than once are discarded by
+ * the bridge, as well as the batches sent by the node itself.
+ *
+ * @author GraviteeSource Team
+ */
+public interface EventTransport {
+    /**
+     * Send an encoded batch of events to the other nodes.
+     */
+    void send(byte[] batch);
+
+    /**
+     * Register the handler receiving the batches sent by the nodes.
+     */
+    Subscription receive(Consumer<byte[]> handler);
+}
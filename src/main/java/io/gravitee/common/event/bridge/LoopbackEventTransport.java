@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.event.bridge;
+
+import io.gravitee.common.event.Subscription;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-memory {@link EventTransport} synchronously delivering each batch to all the registered handlers. Sharing the same
+ * instance between several bridges simulates a cluster within a single JVM, which is mainly useful for testing.
+ *
+ * @author GraviteeSource Team
+ */
+public class LoopbackEventTransport implements EventTransport {
+
+    private final List<Consumer<byte[]>> handlers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(final byte[] batch) {
+        for (Consumer<byte[]> handler : handlers) {
+            handler.accept(batch);
+        }
+    }
+
+    @Override
+    public Subscription receive(final Consumer<byte[]> handler) {
+        handlers.add(handler);
+        return () -> handlers.remove(handler);
+    }
+}
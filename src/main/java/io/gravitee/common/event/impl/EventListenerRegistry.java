@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.event.impl;
+
+import io.gravitee.common.event.Event;
+import io.gravitee.common.event.EventListener;
+import io.gravitee.common.event.EventSelector;
+import io.gravitee.common.event.Subscription;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Listeners registered for a given enum event type class.
+ *
+ * Each constant of the enum has its own bucket holding an immutable snapshot of its subscribers. Publishing only reads
+ * the snapshot of the bucket matching the event ordinal, subscribing swaps in a new snapshot and unsubscribing simply
+ * deactivates the subscriber. Deactivated subscribers are purged from the snapshot once they represent more than half
+ * of it, so frequent subscribe / unsubscribe cycles don't copy the whole listener array each time.
+ *
+ * Subscriptions made with an {@link EventSelector} are added to the buckets of the supported constants only, so generic
+ * observers don't add any cost to the event types they are not interested in.
+ *
+ * @author GraviteeSource Team
+ */
+final class EventListenerRegistry<T extends Enum<T>> {
+
+    private final T[] constants;
+    private final Bucket[] buckets;
+
+    EventListenerRegistry(final Class<T> eventTypeClass) {
+        this.constants = eventTypeClass.getEnumConstants();
+        this.buckets = new Bucket[constants.length];
+        for (int i = 0; i < constants.length; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    /**
+     * @return the number of listeners the event has been delivered to.
+     */
+    @SuppressWarnings("unchecked")
+    <S> int dispatch(final Event<T, S> event) {
+        int listeners = 0;
+        for (Subscriber subscriber : buckets[event.type().ordinal()].subscribers()) {
+            if (subscriber.isActive() && subscriber.accepts(event)) {
+                ((EventListener<T, S>) subscriber.eventListener).onEvent(event);
+                listeners++;
+            }
+        }
+        return listeners;
+    }
+
+    Subscription add(final EventListener<T, ?> eventListener, final Set<T> eventTypes) {
+        Subscriber[] subscribers = new Subscriber[eventTypes.size()];
+        int i = 0;
+        for (T eventType : eventTypes) {
+            Bucket bucket = buckets[eventType.ordinal()];
+            subscribers[i] = new Subscriber(eventListener, null, bucket);
+            bucket.add(subscribers[i++]);
+        }
+        return new Registration(subscribers);
+    }
+
+    Subscription add(final Consumer<? super Event<?, ?>> eventConsumer, final EventSelector eventSelector) {
+        EventListener<T, Object> eventListener = eventConsumer::accept;
+        Subscriber[] subscribers = new Subscriber[constants.length];
+        int i = 0;
+        for (T eventType : constants) {
+            if (eventSelector.supports(eventType)) {
+                Bucket bucket = buckets[eventType.ordinal()];
+                subscribers[i] = new Subscriber(eventListener, eventSelector, bucket);
+                bucket.add(subscribers[i++]);
+            }
+        }
+        return new Registration(Arrays.copyOf(subscribers, i));
+    }
+
+    /**
+     * Removes the subscriptions of the listener made for the given event types. Subscriptions made with an
+     * {@link EventSelector} are left untouched.
+     */
+    void remove(final EventListener<T, ?> eventListener, final Set<T> eventTypes) {
+        for (T eventType : eventTypes) {
+            for (Subscriber subscriber : buckets[eventType.ordinal()].subscribers()) {
+                if (subscriber.eventSelector == null && subscriber.eventListener.equals(eventListener)) {
+                    subscriber.cancel();
+                }
+            }
+        }
+    }
+
+    private record Registration(Subscriber[] subscribers) implements Subscription {
+        @Override
+        public void unsubscribe() {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.cancel();
+            }
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final EventListener<?, ?> eventListener;
+        private final EventSelector eventSelector;
+        private final Bucket bucket;
+        private final AtomicBoolean active = new AtomicBoolean(true);
+
+        private Subscriber(final EventListener<?, ?> eventListener, final EventSelector eventSelector, final Bucket bucket) {
+            this.eventListener = eventListener;
+            this.eventSelector = eventSelector;
+            this.bucket = bucket;
+        }
+
+        private boolean accepts(final Event<?, ?> event) {
+            return eventSelector == null || eventSelector.test(event);
+        }
+
+        private boolean isActive() {
+            return active.get();
+        }
+
+        private void cancel() {
+            if (active.compareAndSet(true, false)) {
+                bucket.onCancelled();
+            }
+        }
+    }
+
+    private static final class Bucket {
+
+        private static final Subscriber[] EMPTY = new Subscriber[0];
+
+        private final AtomicReference<Subscriber[]> snapshot = new AtomicReference<>(EMPTY);
+        private final AtomicInteger cancelled = new AtomicInteger();
+
+        private Subscriber[] subscribers() {
+            return snapshot.get();
+        }
+
+        private void add(final Subscriber subscriber) {
+            snapshot.updateAndGet(current -> {
+                Subscriber[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = subscriber;
+                return updated;
+            });
+        }
+
+        private void onCancelled() {
+            if (cancelled.incrementAndGet() * 2 > snapshot.get().length) {
+                purge();
+            }
+        }
+
+        private void purge() {
+            Subscriber[] current;
+            Subscriber[] purged;
+            do {
+                current = snapshot.get();
+                purged = Arrays.stream(current).filter(Subscriber::isActive).toArray(Subscriber[]::new);
+            } while (!snapshot.compareAndSet(current, purged));
+            cancelled.addAndGet(purged.length - current.length);
+        }
+    }
+}
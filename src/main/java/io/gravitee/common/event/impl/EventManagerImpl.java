@@ -16,15 +16,22 @@
 package io.gravitee.common.event.impl;
 
 import io.gravitee.common.event.Event;
+import io.gravitee.common.event.EventJournal;
 import io.gravitee.common.event.EventListener;
 import io.gravitee.common.event.EventManager;
+import io.gravitee.common.event.EventMetrics;
+import io.gravitee.common.event.EventSelector;
+import io.gravitee.common.event.Subscription;
+import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -33,7 +40,39 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class EventManagerImpl implements EventManager {
 
-    private final Map<ComparableEventType<? extends Enum<?>>, List<EventListenerSubscription<?, ?>>> listeners = new ConcurrentHashMap<>();
+    private static final Subscription NO_SUBSCRIPTION = () -> {};
+
+    private final Map<Class<?>, EventListenerRegistry<?>> registries = new ConcurrentHashMap<>();
+    private final List<Selection> selections = new CopyOnWriteArrayList<>();
+    private final Object lock = new Object();
+    private final EventJournal journal;
+    private final ReadWriteLock journalLock = new ReentrantReadWriteLock();
+    private final EventMetrics metrics;
+
+    public EventManagerImpl() {
+        this(null, EventMetrics.NOOP);
+    }
+
+    public EventManagerImpl(final EventJournal journal) {
+        this(journal, EventMetrics.NOOP);
+    }
+
+    /**
+     * Create an event manager reporting the publish count, fan-out and dispatch latency of each event to the given metrics.
+     */
+    public EventManagerImpl(final EventMetrics metrics) {
+        this(null, metrics);
+    }
+
+    /**
+     * Create an event manager recording the published events into the given journal and replaying them to the listeners
+     * subscribing to event types. Replayed events may be delivered a second time if they were being published while the
+     * listener subscribed.
+     */
+    public EventManagerImpl(final EventJournal journal, final EventMetrics metrics) {
+        this.journal = journal;
+        this.metrics = metrics != null ? metrics : EventMetrics.NOOP;
+    }
 
     public <T extends Enum<T>, S> void publishEvent(final T type, final S content) {
         this.publishEvent(new SimpleEvent<>(type, content));
@@ -41,44 +80,107 @@ public class EventManagerImpl implements EventManager {
 
     public <T extends Enum<T>, S> void publishEvent(final Event<T, S> event) {
         log.debug("Publish event {} - {}", event.type(), event.content());
-        List<EventListenerSubscription<?, ?>> eventTypeListeners = this.listeners.get(
-            new ComparableEventType<>((Class<T>) event.type().getClass())
-        );
+        if (metrics == EventMetrics.NOOP) {
+            dispatch(event);
+        } else {
+            long start = System.nanoTime();
+            int listeners = dispatch(event);
+            metrics.onPublish(event.type(), listeners, System.nanoTime() - start);
+        }
+    }
+
+    private <T extends Enum<T>, S> int dispatch(final Event<T, S> event) {
+        if (journal != null) {
+            record(event);
+        }
 
-        if (eventTypeListeners != null && !eventTypeListeners.isEmpty()) {
-            eventTypeListeners
-                .stream()
-                .filter(wrapper -> wrapper.events().contains(event.type()))
-                .forEach(wrapper -> ((EventListenerSubscription<T, S>) wrapper).eventListener().onEvent(event));
+        EventListenerRegistry<T> registry = (EventListenerRegistry<T>) registries.get(event.type().getDeclaringClass());
+
+        if (registry == null && !selections.isEmpty()) {
+            registry = registry(event.type().getDeclaringClass());
         }
+
+        return registry != null ? registry.dispatch(event) : 0;
     }
 
     public <T extends Enum<T>> void subscribeForEvents(EventListener<T, ?> eventListener, T... eventTypes) {
+        subscribe(eventListener, eventTypes);
+    }
+
+    public <T extends Enum<T>> void subscribeForEvents(EventListener<T, ?> eventListener, Class<T> eventTypeClass) {
+        subscribe(eventListener, eventTypeClass);
+    }
+
+    @Override
+    public <T extends Enum<T>> Subscription subscribe(final EventListener<T, ?> eventListener, final Class<T> eventTypeClass) {
+        return addEventListener(eventListener, eventTypeClass, EnumSet.allOf(eventTypeClass));
+    }
+
+    @Override
+    public <T extends Enum<T>> Subscription subscribe(final EventListener<T, ?> eventListener, final T... eventTypes) {
         if (eventTypes.length > 0) {
-            Class<T> eventTypeClass = (Class<T>) eventTypes[0].getClass();
+            Class<T> eventTypeClass = eventTypes[0].getDeclaringClass();
             EnumSet<T> eventTypesSet = EnumSet.of(eventTypes[0], eventTypes);
-            addEventListener(eventListener, eventTypeClass, eventTypesSet);
+            return addEventListener(eventListener, eventTypeClass, eventTypesSet);
         }
+        return NO_SUBSCRIPTION;
     }
 
-    public <T extends Enum<T>> void subscribeForEvents(EventListener<T, ?> eventListener, Class<T> eventTypeClass) {
-        addEventListener(eventListener, eventTypeClass, EnumSet.allOf(eventTypeClass));
+    @Override
+    public Subscription subscribe(final Consumer<? super Event<?, ?>> eventConsumer, final EventSelector eventSelector) {
+        log.debug("Register new consumer {} for event selector {}", eventConsumer.getClass().getSimpleName(), eventSelector);
+
+        synchronized (lock) {
+            Selection selection = new Selection(eventConsumer, eventSelector);
+            registries.values().forEach(selection::bind);
+            selections.add(selection);
+            return selection;
+        }
     }
 
-    private <T extends Enum<T>> void addEventListener(
+    private <T extends Enum<T>> Subscription addEventListener(
         final EventListener<T, ?> eventListener,
         final Class<T> eventTypeClass,
         final Set<T> eventTypes
     ) {
         log.debug("Register new listener {} for event type {}", eventListener.getClass().getSimpleName(), eventTypeClass);
 
-        this.listeners.compute(new ComparableEventType<>(eventTypeClass), (k, v) -> {
-            if (v == null) {
-                v = new CopyOnWriteArrayList<>();
-            }
-            v.add(new EventListenerSubscription<>(eventListener, eventTypes));
-            return v;
-        });
+        if (journal == null) {
+            return registry(eventTypeClass).add(eventListener, eventTypes);
+        }
+
+        // Capturing the journal and registering atomically regarding journal appends ensures no event is missed in between.
+        // Only the capture is done under the lock: the journal is read and delivered once it is released, the events
+        // published in the meantime being queued, so that neither a large journal nor a slow listener blocks the publishers.
+        ReplayingListener<T> replayingListener = new ReplayingListener<>((EventListener<T, Object>) eventListener);
+        Runnable replay;
+        Subscription subscription;
+        journalLock.writeLock().lock();
+        try {
+            replay = journal.prepareReplay(eventTypeClass, eventTypes, eventListener);
+            subscription = registry(eventTypeClass).add(replayingListener, eventTypes);
+        } finally {
+            journalLock.writeLock().unlock();
+        }
+        try {
+            replay.run();
+            replayingListener.deliverPending();
+        } catch (RuntimeException e) {
+            subscription.unsubscribe();
+            throw e;
+        }
+        return subscription;
+    }
+
+    private void record(final Event<?, ?> event) {
+        journalLock.readLock().lock();
+        try {
+            journal.append(event);
+        } catch (Exception e) {
+            log.warn("Unable to record event {} into journal", event.type(), e);
+        } finally {
+            journalLock.readLock().unlock();
+        }
     }
 
     @Override
@@ -89,7 +191,7 @@ public class EventManagerImpl implements EventManager {
     @Override
     public <T extends Enum<T>> void unsubscribeForEvents(final EventListener<T, ?> eventListener, final T... eventTypes) {
         if (eventTypes.length > 0) {
-            Class<T> eventTypeClass = (Class<T>) eventTypes[0].getClass();
+            Class<T> eventTypeClass = eventTypes[0].getDeclaringClass();
             EnumSet<T> eventTypesSet = EnumSet.of(eventTypes[0], eventTypes);
             removeEventListener(eventListener, eventTypeClass, eventTypesSet);
         }
@@ -102,43 +204,108 @@ public class EventManagerImpl implements EventManager {
     ) {
         log.debug("Unregister listener {} for event type {}", eventListener.getClass().getSimpleName(), eventTypeClass);
 
-        this.listeners.computeIfPresent(new ComparableEventType<>(eventTypeClass), (k, v) -> {
-            Set<EventListenerSubscription<?, ?>> removedEventListener = new HashSet<>();
-            v
-                .stream()
-                .filter(eventListenerSubscription -> eventListenerSubscription.eventListener.equals(eventListener))
-                .forEach(eventListenerSubscription -> {
-                    eventListenerSubscription.events.removeAll(eventTypes);
-                    if (eventListenerSubscription.events.isEmpty()) {
-                        removedEventListener.add(eventListenerSubscription);
-                    }
+        EventListenerRegistry<T> registry = (EventListenerRegistry<T>) registries.get(eventTypeClass);
+        if (registry != null) {
+            registry.remove(eventListener, eventTypes);
+        }
+    }
+
+    private <T extends Enum<T>> EventListenerRegistry<T> registry(final Class<T> eventTypeClass) {
+        EventListenerRegistry<T> registry = (EventListenerRegistry<T>) registries.get(eventTypeClass);
+
+        if (registry == null) {
+            // Selections must be bound exactly once to every registry, hence the lock shared with subscribe(EventSelector).
+            synchronized (lock) {
+                registry = (EventListenerRegistry<T>) registries.computeIfAbsent(eventTypeClass, k -> {
+                    EventListenerRegistry<T> created = new EventListenerRegistry<>(eventTypeClass);
+                    selections.forEach(selection -> selection.bind(created));
+                    return created;
                 });
-            for (EventListenerSubscription<?, ?> eventListenerSubscription : removedEventListener) {
-                v.remove(eventListenerSubscription);
             }
+        }
+        return registry;
+    }
+
+    /**
+     * Listener queuing the events published while the journal is being replayed, so that the wrapped listener receives
+     * them after the replayed ones, in order, without the journal lock being held. It is equal to the wrapped listener so
+     * that unsubscribing the latter removes it.
+     */
+    private static final class ReplayingListener<T extends Enum<T>> implements EventListener<T, Object> {
+
+        private final EventListener<T, Object> eventListener;
+        private volatile List<Event<T, Object>> pending = new ArrayList<>();
+
+        private ReplayingListener(final EventListener<T, Object> eventListener) {
+            this.eventListener = eventListener;
+        }
+
+        @Override
+        public void onEvent(final Event<T, Object> event) {
+            if (pending != null) {
+                synchronized (this) {
+                    if (pending != null) {
+                        pending.add(event);
+                        return;
+                    }
+                }
+            }
+            eventListener.onEvent(event);
+        }
 
-            if (v.isEmpty()) {
-                return null;
+        private void deliverPending() {
+            while (true) {
+                List<Event<T, Object>> events;
+                synchronized (this) {
+                    events = pending;
+                    if (events.isEmpty()) {
+                        pending = null;
+                        return;
+                    }
+                    pending = new ArrayList<>();
+                }
+                events.forEach(eventListener::onEvent);
             }
-            return v;
-        });
-    }
+        }
 
-    private record EventListenerSubscription<T extends Enum<T>, S>(EventListener<T, S> eventListener, Set<T> events) {}
+        @Override
+        public boolean equals(final Object o) {
+            return o == this || eventListener.equals(o);
+        }
 
-    private record ComparableEventType<T extends Enum<T>>(Class<? extends T> wrappedClass) implements Comparable<ComparableEventType<T>> {
         @Override
-        public int compareTo(ComparableEventType<T> o) {
-            return wrappedClass.getCanonicalName().compareTo(o.wrappedClass.getCanonicalName());
+        public int hashCode() {
+            return eventListener.hashCode();
+        }
+    }
+
+    /**
+     * Subscription made with an {@link EventSelector}, bound to the registry of each event type class known so far and to
+     * the ones created afterward.
+     */
+    private final class Selection implements Subscription {
+
+        private final Consumer<? super Event<?, ?>> eventConsumer;
+        private final EventSelector eventSelector;
+        private final List<Subscription> subscriptions = new ArrayList<>();
+
+        private Selection(final Consumer<? super Event<?, ?>> eventConsumer, final EventSelector eventSelector) {
+            this.eventConsumer = eventConsumer;
+            this.eventSelector = eventSelector;
+        }
+
+        private void bind(final EventListenerRegistry<?> registry) {
+            subscriptions.add(registry.add(eventConsumer, eventSelector));
         }
 
         @Override
-        public boolean equals(Object o) {
-            if (!(o instanceof ComparableEventType)) {
-                return false;
+        public void unsubscribe() {
+            synchronized (lock) {
+                if (selections.remove(this)) {
+                    subscriptions.forEach(Subscription::unsubscribe);
+                    subscriptions.clear();
+                }
             }
-
-            return compareTo((ComparableEventType<T>) o) == 0;
         }
     }
 }
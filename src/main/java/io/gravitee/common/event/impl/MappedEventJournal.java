@@ -0,0 +1,387 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.event.impl;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import io.gravitee.common.event.Event;
+import io.gravitee.common.event.EventJournal;
+import io.gravitee.common.event.EventListener;
+import io.gravitee.common.event.EventSelector;
+import io.gravitee.common.event.EventSerializer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link EventJournal} appending the selected events to a memory-mapped file.
+ *
+ * Each record is written as <code>[length][crc32][payload]</code>, the payload holding the event type class and constant
+ * names, the optional compaction key and the content converted by the {@link EventSerializer}. When reopening the file,
+ * records are read until the first empty or corrupted one (e.g. torn by a crash), which is where appending resumes.
+ *
+ * When the file is full, it is first compacted by keeping only the most recent event of each key (events without key
+ * are always kept) and grown if that's not enough.
+ *
+ * A replay captures the current mapping and end of the journal, then reads and decodes the records without blocking
+ * appends. As compacting the journal replaces the mapping, it is skipped while a replay is running, the journal being
+ * grown instead when full.
+ *
+ * @author GraviteeSource Team
+ */
+@Slf4j
+public class MappedEventJournal implements EventJournal {
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final byte[] ZEROS = new byte[8192];
+    private static final MethodHandle INVOKE_CLEANER = invokeCleaner();
+
+    private final Path file;
+    private final EventSelector eventSelector;
+    private final EventSerializer eventSerializer;
+    private final Function<Event<?, ?>, String> keyExtractor;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+    // Number of replays reading a captured mapping, which must not be unmapped by a compaction in the meantime.
+    private int replays;
+
+    /**
+     * @param file the journal file, created if it doesn't exist yet.
+     * @param initialSize the size the journal file is mapped with, in bytes.
+     * @param eventSelector the events to record.
+     * @param eventSerializer the serializer used to convert the event contents.
+     * @param keyExtractor the function giving the key used to compact the events, may return <code>null</code> for
+     *                     events which must never be compacted, or be <code>null</code> if no event must ever be.
+     */
+    public MappedEventJournal(
+        final Path file,
+        final int initialSize,
+        final EventSelector eventSelector,
+        final EventSerializer eventSerializer,
+        final Function<Event<?, ?>, String> keyExtractor
+    ) throws IOException {
+        this.file = file;
+        this.eventSelector = eventSelector;
+        this.eventSerializer = eventSerializer;
+        this.keyExtractor = keyExtractor;
+        open(Math.max(initialSize, HEADER_SIZE));
+    }
+
+    @Override
+    public void append(final Event<?, ?> event) {
+        if (!eventSelector.supports(event.type()) || !eventSelector.test(event)) {
+            return;
+        }
+
+        byte[] payload = encode(event);
+        synchronized (this) {
+            try {
+                if (position + HEADER_SIZE + payload.length > buffer.capacity()) {
+                    if (replays == 0) {
+                        doCompact();
+                    }
+                    if (position + HEADER_SIZE + payload.length > buffer.capacity()) {
+                        remap(Math.max(buffer.capacity() * 2L, (long) position + HEADER_SIZE + payload.length));
+                    }
+                }
+                write(payload);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to append event to journal " + file, e);
+            }
+        }
+    }
+
+    @Override
+    public <T extends Enum<T>> void replay(
+        final Class<T> eventTypeClass,
+        final Set<T> eventTypes,
+        final EventListener<T, ?> eventListener
+    ) {
+        prepareReplay(eventTypeClass, eventTypes, eventListener).run();
+    }
+
+    @Override
+    public <T extends Enum<T>> Runnable prepareReplay(
+        final Class<T> eventTypeClass,
+        final Set<T> eventTypes,
+        final EventListener<T, ?> eventListener
+    ) {
+        MappedByteBuffer mapping;
+        int end;
+        synchronized (this) {
+            mapping = buffer;
+            end = position;
+            replays++;
+        }
+
+        return () -> {
+            try {
+                // The records before the captured end are never modified, and the mapping stays valid until released.
+                for (JournalRecord record : compacted(read(mapping, end))) {
+                    if (record.eventTypeClass().equals(eventTypeClass.getName())) {
+                        T eventType = resolve(eventTypeClass, record.eventType());
+                        if (eventType != null && eventTypes.contains(eventType)) {
+                            Object content = eventSerializer.deserialize(eventType, record.content());
+                            ((EventListener<T, Object>) eventListener).onEvent(new SimpleEvent<>(eventType, content));
+                        }
+                    }
+                }
+            } finally {
+                synchronized (this) {
+                    replays--;
+                }
+            }
+        };
+    }
+
+    /**
+     * Compact the journal, unless a replay is running in which case the compaction is skipped.
+     */
+    @Override
+    public synchronized void compact() {
+        if (replays > 0) {
+            log.debug("Skipping the compaction of journal {} while it is being replayed", file);
+            return;
+        }
+        try {
+            doCompact();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to compact journal " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void open(final long size) throws IOException {
+        channel = FileChannel.open(file, CREATE, READ, WRITE);
+        long fileSize = channel.size();
+        long mappedSize = Math.max(fileSize, size);
+        if (mappedSize > Integer.MAX_VALUE) {
+            throw new IOException("Journal " + file + " exceeds the maximum size of " + Integer.MAX_VALUE + " bytes");
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize);
+        position = recover((int) fileSize);
+    }
+
+    private void remap(final long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Journal " + file + " exceeds the maximum size of " + Integer.MAX_VALUE + " bytes");
+        }
+        buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * Find the end of the last valid record and clear everything after it, so that a partially written record can't be
+     * mistaken for a valid one once new records are appended. Only the bytes that were part of the file before mapping
+     * it need clearing, the file being extended with zeros.
+     */
+    private int recover(final int fileSize) {
+        int offset = 0;
+        while (offset + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || length > buffer.capacity() - offset - HEADER_SIZE) {
+                break;
+            }
+            if (buffer.getInt(offset + Integer.BYTES) != checksum(offset + HEADER_SIZE, length)) {
+                log.warn("Journal {} contains a corrupted record at offset {}, ignoring the remaining records", file, offset);
+                break;
+            }
+            offset += HEADER_SIZE + length;
+        }
+
+        for (int i = offset; i < fileSize; i += ZEROS.length) {
+            buffer.put(i, ZEROS, 0, Math.min(ZEROS.length, fileSize - i));
+        }
+        return offset;
+    }
+
+    private void write(final byte[] payload) {
+        buffer.put(position + HEADER_SIZE, payload);
+        buffer.putInt(position + Integer.BYTES, checksum(position + HEADER_SIZE, payload.length));
+        buffer.putInt(position, payload.length);
+        position += HEADER_SIZE + payload.length;
+    }
+
+    private int checksum(final int offset, final int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private void doCompact() throws IOException {
+        List<JournalRecord> records = read(buffer, position);
+        List<JournalRecord> compacted = compacted(records);
+        if (compacted.size() == records.size()) {
+            return;
+        }
+
+        Path compactedFile = file.resolveSibling(file.getFileName() + ".compact");
+        try (FileChannel compactedChannel = FileChannel.open(compactedFile, CREATE, TRUNCATE_EXISTING, WRITE)) {
+            for (JournalRecord record : compacted) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                CRC32 crc = new CRC32();
+                crc.update(record.payload());
+                header.putInt(record.payload().length).putInt((int) crc.getValue()).flip();
+                compactedChannel.write(new ByteBuffer[] { header, ByteBuffer.wrap(record.payload()) });
+            }
+            compactedChannel.force(true);
+        }
+
+        int size = buffer.capacity();
+        buffer.force();
+        channel.close();
+        // The file can't be replaced while it is still mapped on some platforms, so the mapping is released right away
+        // instead of waiting for the buffer to be garbage collected.
+        unmap(buffer);
+        buffer = null;
+        try {
+            Files.move(compactedFile, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        } finally {
+            open(size);
+        }
+    }
+
+    private static List<JournalRecord> read(final MappedByteBuffer mapping, final int end) {
+        List<JournalRecord> records = new ArrayList<>();
+        int offset = 0;
+        while (offset < end) {
+            int length = mapping.getInt(offset);
+            byte[] payload = new byte[length];
+            mapping.get(offset + HEADER_SIZE, payload);
+            records.add(decode(payload));
+            offset += HEADER_SIZE + length;
+        }
+        return records;
+    }
+
+    /**
+     * Keep only the most recent record of each key, preserving the order of the records.
+     */
+    private static List<JournalRecord> compacted(final List<JournalRecord> records) {
+        Set<String> keys = new HashSet<>();
+        List<JournalRecord> compacted = new ArrayList<>(records.size());
+        for (int i = records.size() - 1; i >= 0; i--) {
+            JournalRecord record = records.get(i);
+            if (record.key() == null || keys.add(record.eventTypeClass() + '#' + record.key())) {
+                compacted.add(record);
+            }
+        }
+        Collections.reverse(compacted);
+        return compacted;
+    }
+
+    private byte[] encode(final Event<?, ?> event) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeUTF(event.type().getDeclaringClass().getName());
+            output.writeUTF(event.type().name());
+            String key = keyExtractor != null ? keyExtractor.apply(event) : null;
+            output.writeBoolean(key != null);
+            if (key != null) {
+                output.writeUTF(key);
+            }
+            byte[] content = eventSerializer.serialize(event);
+            output.writeInt(content.length);
+            output.write(content);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to encode event " + event.type(), e);
+        }
+    }
+
+    private static JournalRecord decode(final byte[] payload) {
+        try {
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+            String eventTypeClass = input.readUTF();
+            String eventType = input.readUTF();
+            String key = input.readBoolean() ? input.readUTF() : null;
+            byte[] content = new byte[input.readInt()];
+            input.readFully(content);
+            return new JournalRecord(eventTypeClass, eventType, key, content, payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to decode journal record", e);
+        }
+    }
+
+    private static <T extends Enum<T>> T resolve(final Class<T> eventTypeClass, final String name) {
+        try {
+            return Enum.valueOf(eventTypeClass, name);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring journal record of unknown event type {}.{}", eventTypeClass.getName(), name);
+            return null;
+        }
+    }
+
+    private static void unmap(final MappedByteBuffer mapping) {
+        if (INVOKE_CLEANER != null) {
+            try {
+                INVOKE_CLEANER.invokeExact((ByteBuffer) mapping);
+            } catch (Throwable t) {
+                log.debug("Unable to unmap journal buffer, it will be released once garbage collected", t);
+            }
+        }
+    }
+
+    private static MethodHandle invokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles
+                .lookup()
+                .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                .bindTo(theUnsafe.get(null));
+        } catch (Exception e) {
+            log.debug("Mapped journal buffers can't be unmapped explicitly, they will be released once garbage collected", e);
+            return null;
+        }
+    }
+
+    private record JournalRecord(String eventTypeClass, String eventType, String key, byte[] content, byte[] payload) {}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.event.impl;
+
+import io.gravitee.common.event.EventMetrics;
+import io.gravitee.common.util.LatencyHistogram;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link EventMetrics} keeping the measures in memory: publish count, total fan-out and dispatch latency histogram for
+ * each event type, and the last depth reported by each queue.
+ *
+ * @author GraviteeSource Team
+ */
+public class RecordingEventMetrics implements EventMetrics {
+
+    private final Map<Enum<?>, EventTypeMetrics> eventTypes = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> queueDepths = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPublish(final Enum<?> eventType, final int listeners, final long dispatchNanos) {
+        EventTypeMetrics metrics = eventTypes.get(eventType);
+        if (metrics == null) {
+            metrics = eventTypes.computeIfAbsent(eventType, k -> new EventTypeMetrics());
+        }
+        metrics.published.increment();
+        metrics.fanOut.add(listeners);
+        metrics.latency.record(dispatchNanos);
+    }
+
+    @Override
+    public void onQueueDepth(final String queue, final int depth) {
+        AtomicInteger queueDepth = queueDepths.get(queue);
+        if (queueDepth == null) {
+            queueDepth = queueDepths.computeIfAbsent(queue, k -> new AtomicInteger());
+        }
+        queueDepth.set(depth);
+    }
+
+    public long published(final Enum<?> eventType) {
+        EventTypeMetrics metrics = eventTypes.get(eventType);
+        return metrics == null ? 0 : metrics.published.sum();
+    }
+
+    /**
+     * @return the total number of listeners the events of the given type have been delivered to.
+     */
+    public long fanOut(final Enum<?> eventType) {
+        EventTypeMetrics metrics = eventTypes.get(eventType);
+        return metrics == null ? 0 : metrics.fanOut.sum();
+    }
+
+    /**
+     * @return the dispatch latency histogram of the given event type, in nanoseconds, or <code>null</code> if no event
+     * of this type has been published yet.
+     */
+    public LatencyHistogram latency(final Enum<?> eventType) {
+        EventTypeMetrics metrics = eventTypes.get(eventType);
+        return metrics == null ? null : metrics.latency;
+    }
+
+    public int queueDepth(final String queue) {
+        AtomicInteger queueDepth = queueDepths.get(queue);
+        return queueDepth == null ? 0 : queueDepth.get();
+    }
+
+    private static final class EventTypeMetrics {
+
+        private final LongAdder published = new LongAdder();
+        private final LongAdder fanOut = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable header block encoded once, so that writing a frequently used set of headers, e.g. CORS or security
+ * response headers, is a buffer copy instead of a per-request encoding.
+ *
+ * A block is available in two forms:
+ * <ul>
+ *     <li>HTTP/1.1 wire bytes, i.e. a {@code name: value\r\n} line per value, encoded in ISO-8859-1;</li>
+ *     <li>HPACK field representations (RFC 7541 §6.2) with lower-case literal names and values, without Huffman
+ *     coding. They don't use the dynamic table, so they can be written as is by any HPACK encoder whatever its
+ *     state. Sensitive headers such as {@code Authorization} or {@code Set-Cookie} are marked as never indexed.</li>
+ * </ul>
+ *
+ * As the bytes are written as is, names must be tokens and values field contents (RFC 9110 §5.1 and §5.5), values
+ * being limited to ISO-8859-1: anything else, such as a line break that would inject headers, is rejected with an
+ * {@link IllegalArgumentException} before encoding.
+ *
+ * @author GraviteeSource Team
+ * @see EncodedHeadersCache
+ */
+public final class EncodedHeaders {
+
+    private static final byte[] SEPARATOR = { ':', ' ' };
+    private static final byte[] CRLF = { '\r', '\n' };
+
+    // RFC 7541 §6.2.2 and §6.2.3, literal header field with a literal name.
+    private static final int WITHOUT_INDEXING = 0x00;
+    private static final int NEVER_INDEXED = 0x10;
+    // RFC 7541 §4.1, overhead of an entry in the header table.
+    private static final int HPACK_ENTRY_OVERHEAD = 32;
+
+    private static final boolean[] TOKEN = new boolean[128];
+
+    static {
+        for (char c = 33; c < 127; c++) {
+            TOKEN[c] = true;
+        }
+        for (char c : "()<>@,;:\\\"/[]?={}".toCharArray()) {
+            TOKEN[c] = false;
+        }
+    }
+
+    private final String[] names;
+    private final String[] values;
+    private final byte[] http1;
+    private final byte[] hpack;
+    private final long headerListSize;
+
+    private EncodedHeaders(final String[] names, final String[] values) {
+        this.names = names;
+        this.values = values;
+
+        ByteArrayOutputStream http1Bytes = new ByteArrayOutputStream(64 * names.length);
+        ByteArrayOutputStream hpackBytes = new ByteArrayOutputStream(64 * names.length);
+        long listSize = 0;
+        for (int i = 0; i < names.length; i++) {
+            checkName(names[i]);
+            checkValue(names[i], values[i]);
+            byte[] name = names[i].getBytes(StandardCharsets.ISO_8859_1);
+            byte[] lowerCaseName = names[i].toLowerCase(Locale.ROOT).getBytes(StandardCharsets.ISO_8859_1);
+            byte[] value = values[i].getBytes(StandardCharsets.ISO_8859_1);
+
+            http1Bytes.writeBytes(name);
+            http1Bytes.writeBytes(SEPARATOR);
+            http1Bytes.writeBytes(value);
+            http1Bytes.writeBytes(CRLF);
+
+            hpackBytes.write(isSensitive(names[i]) ? NEVER_INDEXED : WITHOUT_INDEXING);
+            writeHpackString(hpackBytes, lowerCaseName);
+            writeHpackString(hpackBytes, value);
+
+            listSize += lowerCaseName.length + value.length + HPACK_ENTRY_OVERHEAD;
+        }
+        this.http1 = http1Bytes.toByteArray();
+        this.hpack = hpackBytes.toByteArray();
+        this.headerListSize = listSize;
+    }
+
+    /**
+     * Encode the given headers, one field per value. Prefer {@link EncodedHeadersCache} to encode repeated header sets.
+     */
+    public static EncodedHeaders encode(final Map<String, List<String>> headers) {
+        List<String> names = new ArrayList<>(headers.size());
+        List<String> values = new ArrayList<>(headers.size());
+        headers.forEach((name, headerValues) -> {
+            for (String value : headerValues) {
+                names.add(name);
+                values.add(value != null ? value : "");
+            }
+        });
+        return new EncodedHeaders(names.toArray(new String[0]), values.toArray(new String[0]));
+    }
+
+    /**
+     * Return the number of encoded fields, a header with several values giving several fields.
+     */
+    public int size() {
+        return names.length;
+    }
+
+    public String name(final int field) {
+        return names[field];
+    }
+
+    public String value(final int field) {
+        return values[field];
+    }
+
+    /**
+     * Return a read-only view of the HTTP/1.1 encoding of the headers, not including the empty line ending the header
+     * section.
+     */
+    public ByteBuffer http1() {
+        return ByteBuffer.wrap(http1).asReadOnlyBuffer();
+    }
+
+    /**
+     * Copy the HTTP/1.1 encoding of the headers into the given buffer.
+     */
+    public void writeHttp1(final ByteBuffer target) {
+        target.put(http1);
+    }
+
+    /**
+     * Return a read-only view of the HPACK encoding of the headers, to be appended to a header block.
+     */
+    public ByteBuffer hpack() {
+        return ByteBuffer.wrap(hpack).asReadOnlyBuffer();
+    }
+
+    /**
+     * Copy the HPACK encoding of the headers into the given buffer.
+     */
+    public void writeHpack(final ByteBuffer target) {
+        target.put(hpack);
+    }
+
+    /**
+     * Return the size of the headers as defined for {@code SETTINGS_MAX_HEADER_LIST_SIZE} (RFC 7540 §6.5.2), i.e. the
+     * length of each name and value plus 32 bytes per field.
+     */
+    public long headerListSize() {
+        return headerListSize;
+    }
+
+    private static void checkName(final String name) {
+        boolean valid = !name.isEmpty();
+        for (int i = 0, length = name.length(); valid && i < length; i++) {
+            char c = name.charAt(i);
+            valid = c < 128 && TOKEN[c];
+        }
+        if (!valid) {
+            // Not echoed, as it may contain the line breaks it is rejected for
+            throw new IllegalArgumentException("Invalid header name");
+        }
+    }
+
+    private static void checkValue(final String name, final String value) {
+        int length = value.length();
+        boolean valid = length == 0 || (!isWhitespace(value.charAt(0)) && !isWhitespace(value.charAt(length - 1)));
+        for (int i = 0; valid && i < length; i++) {
+            char c = value.charAt(i);
+            // Visible characters, spaces and tabs, and obs-text up to the end of ISO-8859-1
+            valid = (c >= 0x20 && c != 0x7F && c <= 0xFF) || c == '\t';
+        }
+        if (!valid) {
+            throw new IllegalArgumentException("Invalid value for header '" + name + "'");
+        }
+    }
+
+    private static boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static boolean isSensitive(final String name) {
+        return (
+            HttpHeaders.AUTHORIZATION.equalsIgnoreCase(name) ||
+            HttpHeaders.PROXY_AUTHORIZATION.equalsIgnoreCase(name) ||
+            HttpHeaders.COOKIE.equalsIgnoreCase(name) ||
+            HttpHeaders.SET_COOKIE.equalsIgnoreCase(name)
+        );
+    }
+
+    /**
+     * Write a string literal without Huffman coding (RFC 7541 §5.2), its length being encoded as an integer with a
+     * 7-bit prefix (RFC 7541 §5.1).
+     */
+    private static void writeHpackString(final ByteArrayOutputStream out, final byte[] value) {
+        int length = value.length;
+        if (length < 0x7F) {
+            out.write(length);
+        } else {
+            out.write(0x7F);
+            length -= 0x7F;
+            while (length >= 0x80) {
+                out.write((length & 0x7F) | 0x80);
+                length >>>= 7;
+            }
+            out.write(length);
+        }
+        out.writeBytes(value);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import io.gravitee.common.util.BoundedCache;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded cache of {@link EncodedHeaders}, keyed by the content of the header sets.
+ *
+ * Header sets known in advance should be kept as {@link HttpHeadersSnapshot}s: their hash code is computed once and
+ * looking the same instance up again only costs an identity comparison.
+ *
+ * @author GraviteeSource Team
+ */
+public class EncodedHeadersCache {
+
+    private final BoundedCache<HttpHeadersSnapshot, EncodedHeaders> cache;
+
+    public EncodedHeadersCache(int maximumSize) {
+        this.cache = new BoundedCache<>(maximumSize);
+    }
+
+    /**
+     * Return the encoded form of the given headers, encoding them on the first call.
+     */
+    public EncodedHeaders encode(HttpHeadersSnapshot headers) {
+        return cache.computeIfAbsent(headers, EncodedHeaders::encode);
+    }
+
+    /**
+     * Return the encoded form of the given headers, encoding them on the first call. A snapshot of the headers is taken
+     * on each call to look them up, use {@link #encode(HttpHeadersSnapshot)} to avoid it.
+     */
+    public EncodedHeaders encode(Map<String, List<String>> headers) {
+        return encode(HttpHeadersSnapshot.of(headers));
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+}
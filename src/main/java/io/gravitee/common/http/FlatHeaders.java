@@ -0,0 +1,791 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import static io.gravitee.common.util.AsciiUtils.equalsIgnoreCase;
+import static io.gravitee.common.util.AsciiUtils.hashCodeIgnoreCase;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Header storage backing {@link FlatHttpHeaders}.
+ *
+ * Each distinct header name occupies a slot of three parallel arrays: the name, its ASCII case-insensitive hash and its
+ * value, stored either as a single {@link String} or, for repeated headers, as an immutable {@code String[]}. Slots
+ * are kept in insertion order and looked up by a linear scan comparing hashes first, until the number of headers makes
+ * it worth building an open-addressing index. {@link List} views of the values are only created when accessed through
+ * the {@link java.util.Map} API.
+ *
+ * Headers whose name is one of the {@link HttpHeaders} constants are also indexed by {@link KnownHeaderNames} ordinal,
+ * so that looking one up with the constant itself is a direct read of its slot.
+ *
+ * The number of entries and their total size are maintained on each modification, and checked against the
+ * {@link HttpHeadersLimits} before any change is made. Bulk changes are applied entirely or not at all.
+ *
+ * Copies share the arrays of the copied headers until either of them is modified, at which point the modified one
+ * copies the arrays before writing to them, so copying headers which are only read is O(1).
+ *
+ * @author GraviteeSource Team
+ */
+final class FlatHeaders extends AbstractMap<String, List<String>> {
+
+    private static final int LINEAR_SCAN_THRESHOLD = 8;
+    private static final int MIN_CAPACITY = 4;
+    private static final String[] NO_VALUES = new String[0];
+
+    private String[] names;
+    private int[] hashes;
+    private Object[] values;
+    private int size;
+    // Slot + 1 of each header, indexed by hash. Only used above LINEAR_SCAN_THRESHOLD and rebuilt lazily when invalidated.
+    private int[] index;
+    // Slot + 1 of each well-known header, indexed by ordinal. Built on the first lookup by constant and rebuilt lazily
+    // when invalidated.
+    private int[] known;
+    // Whether the arrays above may be shared with a copy, in which case they must be copied before any write.
+    private boolean shared;
+
+    private final HttpHeadersLimits limits;
+    private int entryCount;
+    private long byteSize;
+
+    FlatHeaders(final int initialCapacity, final HttpHeadersLimits limits) {
+        this.limits = limits;
+        int capacity = Math.max(initialCapacity, MIN_CAPACITY);
+        this.names = new String[capacity];
+        this.hashes = new int[capacity];
+        this.values = new Object[capacity];
+    }
+
+    FlatHeaders(final FlatHeaders other) {
+        this.limits = other.limits;
+        share(other);
+    }
+
+    HttpHeadersLimits limits() {
+        return limits;
+    }
+
+    int entryCount() {
+        return entryCount;
+    }
+
+    long byteSize() {
+        return byteSize;
+    }
+
+    String getFirst(final String name) {
+        int slot = slotOf(name);
+        return slot < 0 ? null : first(values[slot]);
+    }
+
+    void add(final String name, final String value) {
+        int hash = hashCodeIgnoreCase(name);
+        int slot = slot(name, hash);
+        if (slot < 0) {
+            append(name, hash, value);
+        } else {
+            replace(slot, names[slot], appendValue(values[slot], value), value);
+        }
+    }
+
+    void set(final String name, final String value) {
+        int hash = hashCodeIgnoreCase(name);
+        int slot = slot(name, hash);
+        if (slot < 0) {
+            append(name, hash, value);
+        } else {
+            replace(slot, name, value, value);
+        }
+    }
+
+    boolean containsAll(final Collection<String> names) {
+        if (names instanceof List<String> list && names instanceof RandomAccess) {
+            for (int i = 0, count = list.size(); i < count; i++) {
+                if (slotOf(list.get(i)) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (String name : names) {
+            if (slotOf(name) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void addAll(final String name, final List<String> added) {
+        if (added.isEmpty()) {
+            return;
+        }
+        int hash = hashCodeIgnoreCase(name);
+        int slot = slot(name, hash);
+        Object value = toValue(added);
+        if (slot < 0) {
+            append(name, hash, value);
+        } else {
+            replace(slot, names[slot], concat(values[slot], value), value);
+        }
+    }
+
+    void addAll(final FlatHeaders other) {
+        // Checked before any change so that the headers are left unchanged when the added ones exceed the limits
+        checkLimits(entryCount + (long) other.entryCount, byteSize + other.byteSize);
+        if (other.limits.maxValueSize() > limits.maxValueSize()) {
+            for (int slot = 0, count = other.size; slot < count; slot++) {
+                checkValueSizes(other.values[slot]);
+            }
+        }
+        if (size == 0 && limits.maxValueSize() >= other.limits.maxValueSize()) {
+            share(other);
+            return;
+        }
+        for (int slot = 0, count = other.size; slot < count; slot++) {
+            Object value = other.values[slot];
+            int existing = slot(other.names[slot], other.hashes[slot]);
+            if (existing < 0) {
+                append(other.names[slot], other.hashes[slot], value);
+            } else {
+                replace(existing, names[existing], concat(values[existing], value), value);
+            }
+        }
+    }
+
+    /**
+     * Apply the given changes entirely or not at all: when one of them exceeds the limits, the headers are restored as
+     * they were before rethrowing. The restore point shares the arrays of the headers, so that it only costs a copy of
+     * them on the first change.
+     */
+    void applyAll(final Runnable changes) {
+        if (HttpHeadersLimits.UNLIMITED.equals(limits)) {
+            changes.run();
+            return;
+        }
+        FlatHeaders restorePoint = new FlatHeaders(this);
+        try {
+            changes.run();
+        } catch (RuntimeException e) {
+            share(restorePoint);
+            throw e;
+        }
+    }
+
+    boolean removeAll(final Collection<String> headerNames) {
+        // Removed slots are marked with a null value, then the arrays are compacted in one pass.
+        boolean removed = false;
+        for (String name : headerNames) {
+            int slot = slotOf(name);
+            if (slot >= 0 && values[slot] != null) {
+                markRemoved(slot);
+                removed = true;
+            }
+        }
+        if (removed) {
+            compact();
+        }
+        return removed;
+    }
+
+    boolean retainOnly(final Collection<String> headerNames) {
+        boolean removed = false;
+        for (int slot = 0; slot < size; slot++) {
+            if (!HttpHeaders.containsIgnoreCase(headerNames, names[slot])) {
+                markRemoved(slot);
+                removed = true;
+            }
+        }
+        if (removed) {
+            compact();
+        }
+        return removed;
+    }
+
+    String nameAt(final int slot) {
+        return names[slot];
+    }
+
+    String firstValueAt(final int slot) {
+        return first(values[slot]);
+    }
+
+    // Map implementation
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key instanceof String name && slotOf(name) >= 0;
+    }
+
+    @Override
+    public List<String> get(final Object key) {
+        if (key instanceof String name) {
+            int slot = slotOf(name);
+            if (slot >= 0) {
+                return new Values(names[slot], hashes[slot]);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<String> put(final String key, final List<String> value) {
+        int hash = hashCodeIgnoreCase(key);
+        int slot = slot(key, hash);
+        Object stored = toValue(value);
+        if (slot < 0) {
+            append(key, hash, stored);
+            return null;
+        }
+        List<String> previous = toList(values[slot]);
+        replace(slot, key, stored, stored);
+        return previous;
+    }
+
+    @Override
+    public List<String> remove(final Object key) {
+        if (key instanceof String name) {
+            int slot = slotOf(name);
+            if (slot >= 0) {
+                List<String> previous = toList(values[slot]);
+                removeSlot(slot);
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    // The Map defaults of the compute methods return the list given to put, which is copied: they are overridden to
+    // return the live view of the stored values instead, as the lists of HttpHeaders are.
+
+    @Override
+    public List<String> computeIfAbsent(final String key, final Function<? super String, ? extends List<String>> mappingFunction) {
+        List<String> current = get(key);
+        if (current != null) {
+            return current;
+        }
+        return store(key, mappingFunction.apply(key), null);
+    }
+
+    @Override
+    public List<String> computeIfPresent(
+        final String key,
+        final BiFunction<? super String, ? super List<String>, ? extends List<String>> remappingFunction
+    ) {
+        List<String> current = get(key);
+        if (current == null) {
+            return null;
+        }
+        return store(key, remappingFunction.apply(key, current), current);
+    }
+
+    @Override
+    public List<String> compute(
+        final String key,
+        final BiFunction<? super String, ? super List<String>, ? extends List<String>> remappingFunction
+    ) {
+        List<String> current = get(key);
+        return store(key, remappingFunction.apply(key, current), current);
+    }
+
+    @Override
+    public List<String> merge(
+        final String key,
+        final List<String> value,
+        final BiFunction<? super List<String>, ? super List<String>, ? extends List<String>> remappingFunction
+    ) {
+        Objects.requireNonNull(value);
+        List<String> current = get(key);
+        return store(key, current == null ? value : remappingFunction.apply(current, value), current);
+    }
+
+    @Override
+    public void putAll(final Map<? extends String, ? extends List<String>> map) {
+        applyAll(() -> super.putAll(map));
+    }
+
+    @Override
+    public void clear() {
+        if (shared) {
+            names = new String[names.length];
+            hashes = new int[names.length];
+            values = new Object[names.length];
+            shared = false;
+        } else {
+            Arrays.fill(names, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+        }
+        size = 0;
+        index = null;
+        known = null;
+        entryCount = 0;
+        byteSize = 0;
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super String, ? super List<String>> action) {
+        for (int slot = 0; slot < size; slot++) {
+            action.accept(names[slot], new Values(names[slot], hashes[slot]));
+        }
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        return new EntrySet();
+    }
+
+    /**
+     * Store the result of a compute method, removing the header when it is {@code null}.
+     * @return the live view of the stored values, or {@code null} if the header has been removed
+     */
+    private List<String> store(final String key, final List<String> computed, final List<String> current) {
+        if (computed == null) {
+            if (current != null) {
+                remove(key);
+            }
+            return null;
+        }
+        put(key, computed);
+        return get(key);
+    }
+
+    // Slot management
+
+    private int slotOf(final String name) {
+        int ordinal = KnownHeaderNames.identityOrdinalOf(name);
+        if (ordinal != KnownHeaderNames.UNKNOWN) {
+            return (known != null ? known : buildKnown())[ordinal] - 1;
+        }
+        return slot(name, hashCodeIgnoreCase(name));
+    }
+
+    private int slot(final CharSequence name, final int hash) {
+        if (size > LINEAR_SCAN_THRESHOLD) {
+            int[] table = index != null ? index : buildIndex();
+            int mask = table.length - 1;
+            for (int i = spread(hash) & mask;; i = (i + 1) & mask) {
+                int slot = table[i] - 1;
+                if (slot < 0) {
+                    return -1;
+                }
+                if (hashes[slot] == hash && equalsIgnoreCase(names[slot], name)) {
+                    return slot;
+                }
+            }
+        }
+        for (int slot = 0; slot < size; slot++) {
+            if (hashes[slot] == hash && equalsIgnoreCase(names[slot], name)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void append(final String name, final int hash, final Object value) {
+        account(count(value), sizeOf(name, value), value);
+        unshare();
+        if (size == names.length) {
+            int capacity = size << 1;
+            names = Arrays.copyOf(names, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        names[size] = name;
+        hashes[size] = hash;
+        values[size] = value;
+        size++;
+
+        if (index != null) {
+            if (size << 1 > index.length) {
+                index = null;
+            } else {
+                insertIntoIndex(index, size - 1);
+            }
+        }
+        if (known != null) {
+            int ordinal = KnownHeaderNames.ordinalOf(name, hash);
+            if (ordinal != KnownHeaderNames.UNKNOWN) {
+                known[ordinal] = size;
+            }
+        }
+    }
+
+    private void replace(final int slot, final String name, final Object value, final Object added) {
+        Object previous = values[slot];
+        account(count(value) - count(previous), sizeOf(name, value) - sizeOf(names[slot], previous), added);
+        unshare();
+        names[slot] = name;
+        values[slot] = value;
+    }
+
+    private void markRemoved(final int slot) {
+        entryCount -= count(values[slot]);
+        byteSize -= sizeOf(names[slot], values[slot]);
+        unshare();
+        values[slot] = null;
+    }
+
+    private void removeSlot(final int slot) {
+        entryCount -= count(values[slot]);
+        byteSize -= sizeOf(names[slot], values[slot]);
+        unshare();
+        int moved = size - slot - 1;
+        if (moved > 0) {
+            System.arraycopy(names, slot + 1, names, slot, moved);
+            System.arraycopy(hashes, slot + 1, hashes, slot, moved);
+            System.arraycopy(values, slot + 1, values, slot, moved);
+        }
+        size--;
+        names[size] = null;
+        values[size] = null;
+        index = null;
+        known = null;
+    }
+
+    private int[] buildIndex() {
+        int[] table = new int[Integer.highestOneBit(Math.max(size, names.length) << 1) << 1];
+        for (int slot = 0; slot < size; slot++) {
+            insertIntoIndex(table, slot);
+        }
+        index = table;
+        return table;
+    }
+
+    private void share(final FlatHeaders other) {
+        names = other.names;
+        hashes = other.hashes;
+        values = other.values;
+        size = other.size;
+        index = other.index;
+        known = other.known;
+        entryCount = other.entryCount;
+        byteSize = other.byteSize;
+        shared = true;
+        other.shared = true;
+    }
+
+    private void compact() {
+        int kept = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (values[slot] != null) {
+                if (kept != slot) {
+                    names[kept] = names[slot];
+                    hashes[kept] = hashes[slot];
+                    values[kept] = values[slot];
+                }
+                kept++;
+            }
+        }
+        Arrays.fill(names, kept, size, null);
+        Arrays.fill(values, kept, size, null);
+        size = kept;
+        index = null;
+        known = null;
+    }
+
+    /**
+     * Check the limits against the given changes of the entry count and size, and the added values, then apply the
+     * changes to the counters. Must be called before making any change.
+     */
+    private void account(final int countDelta, final long sizeDelta, final Object added) {
+        checkLimits(entryCount + (long) countDelta, byteSize + sizeDelta);
+        if (added != null) {
+            checkValueSizes(added);
+        }
+        entryCount += countDelta;
+        byteSize += sizeDelta;
+    }
+
+    private void checkValueSizes(final Object added) {
+        if (limits.maxValueSize() != Integer.MAX_VALUE) {
+            for (int i = 0, count = count(added); i < count; i++) {
+                String value = valueAt(added, i);
+                if (value != null && value.length() > limits.maxValueSize()) {
+                    throw new IllegalArgumentException(
+                        "Header value size " + value.length() + " exceeds the limit of " + limits.maxValueSize()
+                    );
+                }
+            }
+        }
+    }
+
+    private void checkLimits(final long count, final long size) {
+        if (count > limits.maxCount()) {
+            throw new IllegalArgumentException("Header count " + count + " exceeds the limit of " + limits.maxCount());
+        }
+        if (size > limits.maxSize()) {
+            throw new IllegalArgumentException("Header size " + size + " exceeds the limit of " + limits.maxSize());
+        }
+    }
+
+    private void unshare() {
+        if (shared) {
+            // Value arrays are never modified in place, they can stay shared.
+            names = names.clone();
+            hashes = hashes.clone();
+            values = values.clone();
+            index = index != null ? index.clone() : null;
+            known = known != null ? known.clone() : null;
+            shared = false;
+        }
+    }
+
+    private int[] buildKnown() {
+        int[] table = new int[KnownHeaderNames.COUNT];
+        for (int slot = 0; slot < size; slot++) {
+            int ordinal = KnownHeaderNames.ordinalOf(names[slot], hashes[slot]);
+            if (ordinal != KnownHeaderNames.UNKNOWN) {
+                table[ordinal] = slot + 1;
+            }
+        }
+        known = table;
+        return table;
+    }
+
+    private void insertIntoIndex(final int[] table, final int slot) {
+        int mask = table.length - 1;
+        int i = spread(hashes[slot]) & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = slot + 1;
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    // Value helpers, a value is either a single String or an immutable String[]
+
+    private static String first(final Object value) {
+        if (value instanceof String[] array) {
+            return array.length == 0 ? null : array[0];
+        }
+        return (String) value;
+    }
+
+    private static int count(final Object value) {
+        return value instanceof String[] array ? array.length : 1;
+    }
+
+    private static long sizeOf(final String name, final Object value) {
+        if (value instanceof String[] array) {
+            long size = (long) name.length() * array.length;
+            for (String item : array) {
+                size += item != null ? item.length() : 0;
+            }
+            return size;
+        }
+        return name.length() + (value != null ? ((String) value).length() : 0);
+    }
+
+    private static String valueAt(final Object value, final int position) {
+        if (value instanceof String[] array) {
+            return array[position];
+        }
+        if (position != 0) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: 1");
+        }
+        return (String) value;
+    }
+
+    private static String[] valuesOf(final Object value) {
+        return value instanceof String[] array ? array : new String[] { (String) value };
+    }
+
+    private static Object appendValue(final Object value, final String added) {
+        if (value instanceof String[] array) {
+            if (array.length == 0) {
+                return added;
+            }
+            String[] appended = Arrays.copyOf(array, array.length + 1);
+            appended[array.length] = added;
+            return appended;
+        }
+        return new String[] { (String) value, added };
+    }
+
+    private static Object concat(final Object value, final Object added) {
+        String[] current = valuesOf(value);
+        String[] addedValues = valuesOf(added);
+        if (addedValues.length == 0) {
+            return value;
+        }
+        if (current.length == 0) {
+            return added;
+        }
+        String[] concatenated = Arrays.copyOf(current, current.length + addedValues.length);
+        System.arraycopy(addedValues, 0, concatenated, current.length, addedValues.length);
+        return concatenated;
+    }
+
+    private static Object toValue(final List<String> list) {
+        if (list == null || list.isEmpty()) {
+            return NO_VALUES;
+        }
+        return list.size() == 1 ? list.get(0) : list.toArray(NO_VALUES);
+    }
+
+    private static List<String> toList(final Object value) {
+        return new ArrayList<>(Arrays.asList(valuesOf(value)));
+    }
+
+    /**
+     * Live view of the values of a header, looking the header up on each access so that it stays valid whatever the
+     * changes made to the other headers.
+     */
+    private final class Values extends AbstractList<String> implements RandomAccess {
+
+        private final String name;
+        private final int hash;
+
+        private Values(final String name, final int hash) {
+            this.name = name;
+            this.hash = hash;
+        }
+
+        @Override
+        public String get(final int position) {
+            int slot = slot(name, hash);
+            if (slot < 0) {
+                throw new IndexOutOfBoundsException("Index: " + position + ", Size: 0");
+            }
+            return valueAt(values[slot], position);
+        }
+
+        @Override
+        public int size() {
+            int slot = slot(name, hash);
+            return slot < 0 ? 0 : count(values[slot]);
+        }
+
+        @Override
+        public String set(final int position, final String value) {
+            int slot = slot(name, hash);
+            String previous = get(position);
+            if (values[slot] instanceof String[] array) {
+                String[] updated = array.clone();
+                updated[position] = value;
+                replace(slot, names[slot], updated, value);
+            } else {
+                replace(slot, names[slot], value, value);
+            }
+            return previous;
+        }
+
+        @Override
+        public void add(final int position, final String value) {
+            int slot = slot(name, hash);
+            if (slot < 0) {
+                if (position != 0) {
+                    throw new IndexOutOfBoundsException("Index: " + position + ", Size: 0");
+                }
+                append(name, hash, value);
+                return;
+            }
+            String[] current = valuesOf(values[slot]);
+            if (position < 0 || position > current.length) {
+                throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + current.length);
+            }
+            String[] updated = new String[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, position);
+            updated[position] = value;
+            System.arraycopy(current, position, updated, position + 1, current.length - position);
+            replace(slot, names[slot], updated, value);
+            modCount++;
+        }
+
+        @Override
+        public String remove(final int position) {
+            int slot = slot(name, hash);
+            String previous = get(position);
+            String[] current = valuesOf(values[slot]);
+            String[] updated = new String[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, position);
+            System.arraycopy(current, position + 1, updated, position, current.length - position - 1);
+            replace(slot, names[slot], updated.length == 1 ? updated[0] : updated, null);
+            modCount++;
+            return previous;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, List<String>>> {
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Entry<String, List<String>>> iterator() {
+            return new Iterator<>() {
+                private int next;
+                private int last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return next < size;
+                }
+
+                @Override
+                public Entry<String, List<String>> next() {
+                    if (next >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    last = next++;
+                    String name = names[last];
+                    int hash = hashes[last];
+                    return new SimpleEntry<>(name, new Values(name, hash)) {
+                        @Override
+                        public List<String> setValue(final List<String> value) {
+                            return put(name, value);
+                        }
+                    };
+                }
+
+                @Override
+                public void remove() {
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    removeSlot(last);
+                    next = last;
+                    last = -1;
+                }
+            };
+        }
+    }
+}
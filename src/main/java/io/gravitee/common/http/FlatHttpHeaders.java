@@ -0,0 +1,149 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link HttpHeaders} storing the header names and values in flat arrays instead of a {@link java.util.LinkedHashMap}
+ * of {@link java.util.LinkedList}s, which saves most of the allocations made when building, reading and copying the
+ * headers of a request.
+ *
+ * Header names are matched ignoring the case of ASCII letters. Contrary to {@link HttpHeaders}, the lists given to
+ * {@link #put(String, java.util.List)} are copied and the lists returned by {@link #get(Object)} are views created on
+ * demand.
+ *
+ * @author GraviteeSource Team
+ */
+public class FlatHttpHeaders extends HttpHeaders {
+
+    private final FlatHeaders store;
+
+    public FlatHttpHeaders() {
+        this(8);
+    }
+
+    public FlatHttpHeaders(int initialCapacity) {
+        this(initialCapacity, HttpHeadersLimits.UNLIMITED);
+    }
+
+    /**
+     * Constructs empty headers rejecting any modification that would exceed the given limits with an
+     * {@link IllegalArgumentException}.
+     */
+    public FlatHttpHeaders(HttpHeadersLimits limits) {
+        this(8, limits);
+    }
+
+    public FlatHttpHeaders(int initialCapacity, HttpHeadersLimits limits) {
+        this(new FlatHeaders(initialCapacity, limits));
+    }
+
+    /**
+     * Constructs a copy of the given headers. When they are {@link FlatHttpHeaders} too, the copy shares their storage
+     * until either of them is modified, which makes copying headers that are only read O(1). The copy enforces the
+     * same {@link HttpHeadersLimits}.
+     */
+    public FlatHttpHeaders(HttpHeaders httpHeaders) {
+        this(
+            httpHeaders instanceof FlatHttpHeaders flatHttpHeaders
+                ? new FlatHeaders(flatHttpHeaders.store)
+                : new FlatHeaders(httpHeaders.size(), HttpHeadersLimits.UNLIMITED)
+        );
+        if (!(httpHeaders instanceof FlatHttpHeaders)) {
+            httpHeaders.forEach(store::put);
+        }
+    }
+
+    private FlatHttpHeaders(FlatHeaders store) {
+        super(store);
+        this.store = store;
+    }
+
+    public HttpHeadersLimits limits() {
+        return store.limits();
+    }
+
+    /**
+     * Return the number of entries of these headers, a header with several values counting as several entries.
+     */
+    public int entryCount() {
+        return store.entryCount();
+    }
+
+    /**
+     * Return the sum of the lengths of the name and the value of each entry of these headers.
+     */
+    public long byteSize() {
+        return store.byteSize();
+    }
+
+    @Override
+    public String getFirst(String headerName) {
+        return store.getFirst(headerName);
+    }
+
+    @Override
+    public void add(String headerName, String headerValue) {
+        store.add(headerName, headerValue);
+    }
+
+    @Override
+    public void set(String headerName, String headerValue) {
+        store.set(headerName, headerValue);
+    }
+
+    @Override
+    public void setAll(Map<String, String> values) {
+        store.applyAll(() -> values.forEach(store::set));
+    }
+
+    @Override
+    public Map<String, String> toSingleValueMap() {
+        int size = store.size();
+        Map<String, String> singleValueMap = new LinkedHashMap<>((int) (size / 0.75f) + 1);
+        for (int slot = 0; slot < size; slot++) {
+            singleValueMap.put(store.nameAt(slot), store.firstValueAt(slot));
+        }
+        return singleValueMap;
+    }
+
+    @Override
+    public boolean containsAllKeys(Collection<String> keys) {
+        return store.containsAll(keys);
+    }
+
+    @Override
+    public boolean removeAll(Collection<String> headerNames) {
+        return store.removeAll(headerNames);
+    }
+
+    @Override
+    public boolean retainOnly(Collection<String> headerNames) {
+        return store.retainOnly(headerNames);
+    }
+
+    @Override
+    public void addAll(HttpHeaders httpHeaders) {
+        if (httpHeaders instanceof FlatHttpHeaders flatHttpHeaders) {
+            store.addAll(flatHttpHeaders.store);
+        } else {
+            store.applyAll(() -> httpHeaders.forEach(store::addAll));
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import io.gravitee.common.util.MultiValueMap;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Base of the {@link MultiValueMap} adapters exposing the headers of the server layer without copying them.
+ *
+ * Lookups accept any {@link CharSequence} key and are delegated as is, so that the case-insensitive lookup of the
+ * server layer applies, including its fast path for {@code AsciiString} names. The lists returned by
+ * {@link #get(Object)} are the ones returned by the server layer for the header at the time of the call; they are
+ * copied on their first change only, which is written through to the adapted headers.
+ *
+ * The adapted headers may be changed directly, so that the set of names is not cached: {@link #size()} and the
+ * iterations compute it from the adapted headers on each call.
+ *
+ * @author GraviteeSource Team
+ */
+abstract class HeadersAdapter extends AbstractMap<String, List<String>> implements MultiValueMap<String, String> {
+
+    protected abstract String first(CharSequence name);
+
+    protected abstract List<String> all(CharSequence name);
+
+    protected abstract boolean has(CharSequence name);
+
+    protected abstract Set<String> names();
+
+    protected abstract void addValue(String name, String value);
+
+    protected abstract void setValue(String name, String value);
+
+    protected abstract void setValues(String name, List<String> values);
+
+    protected abstract void removeHeader(CharSequence name);
+
+    protected abstract void removeHeaders();
+
+    /**
+     * Return the first value of the given header, looked up ignoring case.
+     */
+    public String getFirst(CharSequence name) {
+        return first(name);
+    }
+
+    @Override
+    public String getFirst(String name) {
+        return first(name);
+    }
+
+    @Override
+    public void add(String name, String value) {
+        addValue(name, value);
+    }
+
+    @Override
+    public void set(String name, String value) {
+        setValue(name, value);
+    }
+
+    @Override
+    public void setAll(Map<String, String> values) {
+        values.forEach(this::setValue);
+    }
+
+    @Override
+    public Map<String, String> toSingleValueMap() {
+        Set<String> names = names();
+        Map<String, String> singleValueMap = new LinkedHashMap<>((int) (names.size() / 0.75f) + 1);
+        for (String name : names) {
+            singleValueMap.put(name, first(name));
+        }
+        return singleValueMap;
+    }
+
+    @Override
+    public boolean containsAllKeys(Collection<String> names) {
+        for (String name : names) {
+            if (!has(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Map implementation
+
+    @Override
+    public int size() {
+        return names().size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof CharSequence name && has(name);
+    }
+
+    @Override
+    public List<String> get(Object key) {
+        if (key instanceof CharSequence name) {
+            List<String> values = all(name);
+            if (!values.isEmpty()) {
+                return new Values(name.toString(), values);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<String> put(String key, List<String> value) {
+        List<String> previous = get(key);
+        if (value == null || value.isEmpty()) {
+            removeHeader(key);
+        } else {
+            setValues(key, value);
+        }
+        return previous;
+    }
+
+    @Override
+    public List<String> remove(Object key) {
+        List<String> previous = get(key);
+        if (previous != null) {
+            removeHeader((CharSequence) key);
+        }
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        removeHeaders();
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super List<String>> action) {
+        for (String name : names()) {
+            action.accept(name, get(name));
+        }
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        return new EntrySet();
+    }
+
+    /**
+     * Values of a header as read when the view has been created. Changes are written through to the adapted headers.
+     */
+    private final class Values extends AbstractList<String> implements RandomAccess {
+
+        private final String name;
+        private List<String> values;
+        private boolean copied;
+
+        private Values(String name, List<String> values) {
+            this.name = name;
+            this.values = values;
+        }
+
+        @Override
+        public String get(int position) {
+            return values.get(position);
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+
+        @Override
+        public String set(int position, String value) {
+            String previous = modifiableValues().set(position, value);
+            writeThrough();
+            return previous;
+        }
+
+        @Override
+        public void add(int position, String value) {
+            modifiableValues().add(position, value);
+            modCount++;
+            writeThrough();
+        }
+
+        @Override
+        public String remove(int position) {
+            String previous = modifiableValues().remove(position);
+            modCount++;
+            writeThrough();
+            return previous;
+        }
+
+        private List<String> modifiableValues() {
+            // The list returned by the server layer may be read-only
+            if (!copied) {
+                values = new ArrayList<>(values);
+                copied = true;
+            }
+            return values;
+        }
+
+        private void writeThrough() {
+            if (values.isEmpty()) {
+                removeHeader(name);
+            } else {
+                setValues(name, values);
+            }
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, List<String>>> {
+
+        @Override
+        public int size() {
+            return HeadersAdapter.this.size();
+        }
+
+        @Override
+        public Iterator<Entry<String, List<String>>> iterator() {
+            Iterator<String> names = new ArrayList<>(names()).iterator();
+            return new Iterator<>() {
+                private String last;
+
+                @Override
+                public boolean hasNext() {
+                    return names.hasNext();
+                }
+
+                @Override
+                public Entry<String, List<String>> next() {
+                    String name = names.next();
+                    last = name;
+                    return new SimpleEntry<>(name, HeadersAdapter.this.get(name)) {
+                        @Override
+                        public List<String> setValue(List<String> value) {
+                            super.setValue(value);
+                            return put(name, value);
+                        }
+                    };
+                }
+
+                @Override
+                public void remove() {
+                    if (last == null) {
+                        throw new IllegalStateException();
+                    }
+                    removeHeader(last);
+                    last = null;
+                }
+            };
+        }
+    }
+}
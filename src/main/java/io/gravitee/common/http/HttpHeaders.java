@@ -15,13 +15,13 @@
  */
 package io.gravitee.common.http;
 
+import io.gravitee.common.util.AsciiUtils;
 import io.gravitee.common.util.LinkedCaseInsensitiveMap;
 import io.gravitee.common.util.MultiValueMap;
 import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -306,6 +306,12 @@ public class HttpHeaders implements MultiValueMap<String, String> {
 
     private final Map<String, List<String>> headers;
 
+    // Parsed values of typed headers, along with the raw values they have been parsed from. Header values are
+    // immutable strings, so a parsed value stays valid as long as the headers hold the very same raw value.
+    private ParsedContentLength parsedContentLength;
+    private ParsedContentType parsedContentType;
+    private ParsedAccept parsedAccept;
+
     /**
      * Constructs a new, empty instance of the {@code HttpHeaders} object.
      */
@@ -317,6 +323,19 @@ public class HttpHeaders implements MultiValueMap<String, String> {
         this.headers = new LinkedCaseInsensitiveMap<>(initialCapacity);
     }
 
+    /**
+     * Constructs a new instance of the {@code HttpHeaders} object backed by the given map, which is expected to handle
+     * header names in a case-insensitive way.
+     */
+    protected HttpHeaders(Map<String, List<String>> headers) {
+        this.headers = headers;
+    }
+
+    /**
+     * Constructs a deep copy of the given headers.
+     * <p>Lists of values handed out by {@link #get(Object)} are mutable, so they can't be shared with the copy. Use
+     * {@link FlatHttpHeaders#FlatHttpHeaders(HttpHeaders)} to get copy-on-write copies.
+     */
     public HttpHeaders(HttpHeaders httpHeaders) {
         this(httpHeaders.size());
         httpHeaders.forEach((headerName, headerValues) -> put(headerName, new LinkedList(headerValues)));
@@ -479,38 +498,96 @@ public class HttpHeaders implements MultiValueMap<String, String> {
 
     @Override
     public void setAll(Map<String, String> values) {
-        for (Entry<String, String> entry : values.entrySet()) {
-            set(entry.getKey(), entry.getValue());
-        }
+        values.forEach(this::set);
     }
 
     @Override
     public Map<String, String> toSingleValueMap() {
-        LinkedHashMap<String, String> singleValueMap = new LinkedHashMap<String, String>(this.headers.size());
-        for (Entry<String, List<String>> entry : this.headers.entrySet()) {
-            singleValueMap.put(entry.getKey(), entry.getValue().get(0));
-        }
+        LinkedHashMap<String, String> singleValueMap = new LinkedHashMap<>((int) (this.headers.size() / 0.75f) + 1);
+        this.headers.forEach((name, values) -> singleValueMap.put(name, values.get(0)));
         return singleValueMap;
     }
 
     @Override
     public boolean containsAllKeys(Collection<String> keys) {
-        final LinkedCaseInsensitiveMap<Object> headers = (LinkedCaseInsensitiveMap) this.headers;
-        final List<String> lowercaseKeys = keys
-            .stream()
-            .map(s -> s.toLowerCase(headers.getLocale()))
-            .collect(Collectors.toList());
-        return headers.insensitiveKeySet().containsAll(lowercaseKeys);
+        if (keys instanceof List<String> list && keys instanceof RandomAccess) {
+            for (int i = 0, size = list.size(); i < size; i++) {
+                if (!this.headers.containsKey(list.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (String key : keys) {
+            if (!this.headers.containsKey(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remove the headers with the given names, ignoring case.
+     * @return {@code true} if any header has been removed
+     */
+    public boolean removeAll(Collection<String> headerNames) {
+        boolean removed = false;
+        for (String headerName : headerNames) {
+            removed |= this.headers.remove(headerName) != null;
+        }
+        return removed;
+    }
+
+    /**
+     * Remove all the headers but the ones with the given names, ignoring case.
+     * @return {@code true} if any header has been removed
+     */
+    public boolean retainOnly(Collection<String> headerNames) {
+        // Removing through the key set iterator would bypass the case-insensitive index of the map.
+        boolean removed = false;
+        for (String headerName : this.headers.keySet().toArray(new String[0])) {
+            if (!containsIgnoreCase(headerNames, headerName)) {
+                removed |= this.headers.remove(headerName) != null;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Add all the values of the given headers to the values of these headers.
+     */
+    public void addAll(HttpHeaders httpHeaders) {
+        httpHeaders.forEach((headerName, headerValues) ->
+            this.headers.computeIfAbsent(headerName, k -> new LinkedList<>()).addAll(headerValues)
+        );
+    }
+
+    static boolean containsIgnoreCase(Collection<String> headerNames, String headerName) {
+        for (String candidate : headerNames) {
+            if (AsciiUtils.equalsIgnoreCase(candidate, headerName)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
      * Return the length of the body in bytes, as specified by the
      * {@code Content-Length} header.
      * <p>Returns -1 when the content-length is unknown.
+     * <p>The parsed value is cached until the header changes.
      */
     public long contentLength() {
         String value = getFirst(CONTENT_LENGTH);
-        return (value != null ? Long.parseLong(value) : -1);
+        if (value == null) {
+            return -1;
+        }
+        ParsedContentLength parsed = this.parsedContentLength;
+        if (parsed == null || parsed.raw() != value) {
+            parsed = new ParsedContentLength(value, Long.parseLong(value));
+            this.parsedContentLength = parsed;
+        }
+        return parsed.value();
     }
 
     /**
@@ -538,7 +615,56 @@ public class HttpHeaders implements MultiValueMap<String, String> {
         set(CONTENT_TYPE, contentType);
     }
 
+    /**
+     * Return the parsed {@code Content-Type} header.
+     * <p>Returns {@code null} when the content-type is unknown or invalid.
+     * <p>The parsed value is cached until the header changes.
+     */
+    public MediaType getContentType() {
+        String value = getFirst(CONTENT_TYPE);
+        if (value == null) {
+            return null;
+        }
+        ParsedContentType parsed = this.parsedContentType;
+        if (parsed == null || parsed.raw() != value) {
+            parsed = new ParsedContentType(value, MediaType.parseMediaType(value));
+            this.parsedContentType = parsed;
+        }
+        return parsed.value();
+    }
+
+    /**
+     * Return the media types of the {@code Accept} header(s).
+     * <p>The parsed media types are cached until the header changes, the returned list is a mutable copy of them.
+     */
     public List<MediaType> getAccept() {
-        return MediaType.parseMediaTypes(this.get("Accept"));
+        List<String> values = this.get(ACCEPT);
+        if (values == null || values.isEmpty()) {
+            return MediaType.parseMediaTypes(values);
+        }
+        ParsedAccept parsed = this.parsedAccept;
+        if (parsed == null || !parsed.isParsedFrom(values)) {
+            parsed = new ParsedAccept(values.toArray(new String[0]), MediaType.parseMediaTypes(values));
+            this.parsedAccept = parsed;
+        }
+        return new ArrayList<>(parsed.value());
+    }
+
+    private record ParsedContentLength(String raw, long value) {}
+
+    private record ParsedContentType(String raw, MediaType value) {}
+
+    private record ParsedAccept(String[] raw, List<MediaType> value) {
+        boolean isParsedFrom(List<String> values) {
+            if (values.size() != raw.length) {
+                return false;
+            }
+            for (int i = 0; i < raw.length; i++) {
+                if (values.get(i) != raw[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+/**
+ * Limits enforced by {@link FlatHttpHeaders} on each modification, so that oversized header sets are rejected as soon
+ * as they are built.
+ *
+ * The size of headers is the sum of the lengths of the name and the value of each of their entries, i.e. the size of
+ * the header block without the separators added by the protocol.
+ *
+ * @param maxCount the maximum number of entries, a header with several values counting as several entries
+ * @param maxSize the maximum size of all the entries
+ * @param maxValueSize the maximum length of a single value
+ * @author GraviteeSource Team
+ */
+public record HttpHeadersLimits(int maxCount, long maxSize, int maxValueSize) {
+    public static final HttpHeadersLimits UNLIMITED = new HttpHeadersLimits(
+        Integer.MAX_VALUE,
+        Long.MAX_VALUE,
+        Integer.MAX_VALUE
+    );
+
+    public HttpHeadersLimits {
+        if (maxCount < 0 || maxSize < 0 || maxValueSize < 0) {
+            throw new IllegalArgumentException("Header limits must be positive");
+        }
+    }
+}
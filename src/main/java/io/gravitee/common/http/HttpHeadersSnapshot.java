@@ -0,0 +1,346 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import static io.gravitee.common.util.AsciiUtils.equalsIgnoreCase;
+import static io.gravitee.common.util.AsciiUtils.hashCodeIgnoreCase;
+
+import io.gravitee.common.util.MultiValueMap;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable and compact copy of HTTP headers, meant to be retained in large numbers, e.g. by response caches or
+ * request logs.
+ *
+ * All the headers are held by a single array of alternating names and values, one pair per value, the pairs of a same
+ * header being contiguous and sharing the same name instance. Headers are looked up ignoring the case of ASCII letters,
+ * by a linear scan for small snapshots or through an open-addressing index of the first pair of each header otherwise.
+ * Headers without any value are not retained.
+ *
+ * Only the read side of {@link MultiValueMap} is supported, all the mutators throw
+ * {@link UnsupportedOperationException}.
+ *
+ * @author GraviteeSource Team
+ */
+public final class HttpHeadersSnapshot
+    extends AbstractMap<String, List<String>>
+    implements MultiValueMap<String, String> {
+
+    private static final int LINEAR_SCAN_THRESHOLD = 8;
+    private static final String[] NO_ENTRIES = new String[0];
+
+    public static final HttpHeadersSnapshot EMPTY = new HttpHeadersSnapshot(NO_ENTRIES, 0);
+
+    private final String[] entries;
+    private final int size;
+    // Pair index + 1 of the first value of each header, indexed by hash. Only built above LINEAR_SCAN_THRESHOLD
+    // headers.
+    private final int[] index;
+    // Lazily computed, 0 standing for not computed yet.
+    private int hash;
+
+    private HttpHeadersSnapshot(final String[] entries, final int size) {
+        this.entries = entries;
+        this.size = size;
+        this.index = size > LINEAR_SCAN_THRESHOLD ? buildIndex(entries, size) : null;
+    }
+
+    /**
+     * Create a snapshot of the given headers in one pass over them.
+     */
+    public static HttpHeadersSnapshot of(final Map<String, List<String>> headers) {
+        if (headers instanceof HttpHeadersSnapshot snapshot) {
+            return snapshot;
+        }
+        if (headers.isEmpty()) {
+            return EMPTY;
+        }
+        Builder builder = new Builder(headers.size() << 1);
+        headers.forEach(builder);
+        return builder.build();
+    }
+
+    @Override
+    public String getFirst(final String key) {
+        int pair = firstPair(key);
+        return pair < 0 ? null : entries[(pair << 1) + 1];
+    }
+
+    @Override
+    public Map<String, String> toSingleValueMap() {
+        Map<String, String> singleValueMap = new LinkedHashMap<>((int) (size / 0.75f) + 1);
+        for (int pair = 0; pair < entries.length >> 1; pair = nextHeader(pair)) {
+            singleValueMap.put(entries[pair << 1], entries[(pair << 1) + 1]);
+        }
+        return singleValueMap;
+    }
+
+    @Override
+    public boolean containsAllKeys(final Collection<String> keys) {
+        for (String key : keys) {
+            if (firstPair(key) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void add(final String key, final String value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void set(final String key, final String value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setAll(final Map<String, String> values) {
+        throw new UnsupportedOperationException();
+    }
+
+    // Map implementation
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key instanceof String name && firstPair(name) >= 0;
+    }
+
+    @Override
+    public List<String> get(final Object key) {
+        if (key instanceof String name) {
+            int pair = firstPair(name);
+            if (pair >= 0) {
+                return new Values(pair, nextHeader(pair));
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<String> put(final String key, final List<String> value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<String> remove(final Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putAll(final Map<? extends String, ? extends List<String>> map) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = super.hashCode();
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (other instanceof HttpHeadersSnapshot snapshot && hashCode() != snapshot.hashCode()) {
+            return false;
+        }
+        return super.equals(other);
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super String, ? super List<String>> action) {
+        for (int pair = 0, next; pair < entries.length >> 1; pair = next) {
+            next = nextHeader(pair);
+            action.accept(entries[pair << 1], new Values(pair, next));
+        }
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        return new EntrySet();
+    }
+
+    // Lookup
+
+    private int firstPair(final String name) {
+        if (index != null) {
+            int mask = index.length - 1;
+            for (int i = spread(hashCodeIgnoreCase(name)) & mask;; i = (i + 1) & mask) {
+                int pair = index[i] - 1;
+                if (pair < 0 || equalsIgnoreCase(entries[pair << 1], name)) {
+                    return pair;
+                }
+            }
+        }
+        for (int pair = 0; pair < entries.length >> 1; pair = nextHeader(pair)) {
+            if (equalsIgnoreCase(entries[pair << 1], name)) {
+                return pair;
+            }
+        }
+        return -1;
+    }
+
+    private int nextHeader(final int pair) {
+        String name = entries[pair << 1];
+        int next = pair + 1;
+        while (next < entries.length >> 1 && entries[next << 1] == name) {
+            next++;
+        }
+        return next;
+    }
+
+    private static int[] buildIndex(final String[] entries, final int size) {
+        int[] table = new int[Integer.highestOneBit(size) << 2];
+        int mask = table.length - 1;
+        String previous = null;
+        for (int pair = 0; pair < entries.length >> 1; pair++) {
+            String name = entries[pair << 1];
+            if (name != previous) {
+                int i = spread(hashCodeIgnoreCase(name)) & mask;
+                while (table[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = pair + 1;
+                previous = name;
+            }
+        }
+        return table;
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Collects the pairs of the snapshot, growing its array when headers have more than one value.
+     */
+    private static final class Builder implements BiConsumer<String, List<String>> {
+
+        private String[] entries;
+        private int length;
+        private int size;
+
+        private Builder(final int capacity) {
+            this.entries = new String[capacity];
+        }
+
+        @Override
+        public void accept(final String name, final List<String> values) {
+            int count = values == null ? 0 : values.size();
+            if (count == 0) {
+                return;
+            }
+            if (length + (count << 1) > entries.length) {
+                entries = Arrays.copyOf(entries, Math.max(entries.length << 1, length + (count << 1)));
+            }
+            for (int i = 0; i < count; i++) {
+                entries[length++] = name;
+                entries[length++] = values.get(i);
+            }
+            size++;
+        }
+
+        private HttpHeadersSnapshot build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            return new HttpHeadersSnapshot(length == entries.length ? entries : Arrays.copyOf(entries, length), size);
+        }
+    }
+
+    /**
+     * Unmodifiable view of the values of a header, i.e. of a range of pairs.
+     */
+    private final class Values extends AbstractList<String> implements RandomAccess {
+
+        private final int from;
+        private final int to;
+
+        private Values(final int from, final int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public String get(final int position) {
+            if (position < 0 || position >= to - from) {
+                throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + (to - from));
+            }
+            return entries[((from + position) << 1) + 1];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, List<String>>> {
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Entry<String, List<String>>> iterator() {
+            return new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < entries.length >> 1;
+                }
+
+                @Override
+                public Entry<String, List<String>> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int pair = next;
+                    next = nextHeader(pair);
+                    return new SimpleImmutableEntry<>(entries[pair << 1], new Values(pair, next));
+                }
+            };
+        }
+    }
+}
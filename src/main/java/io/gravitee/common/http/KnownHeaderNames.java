@@ -0,0 +1,189 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import static io.gravitee.common.util.AsciiUtils.equalsIgnoreCase;
+import static io.gravitee.common.util.AsciiUtils.hashCodeIgnoreCase;
+
+import java.util.Locale;
+
+/**
+ * Registry of the header names declared as constants by {@link HttpHeaders}.
+ *
+ * Each well-known name gets a stable ordinal, with its lower-case form and its ASCII case-insensitive hash computed
+ * once. As these constants are interned, a caller passing one of them, e.g. {@code getFirst(HttpHeaders.CONTENT_TYPE)},
+ * is recognized by identity without hashing nor comparing the characters of the name.
+ *
+ * @author GraviteeSource Team
+ */
+final class KnownHeaderNames {
+
+    static final int UNKNOWN = -1;
+
+    private static final String[] NAMES = {
+        HttpHeaders.ACCEPT,
+        HttpHeaders.ACCEPT_CHARSET,
+        HttpHeaders.ACCEPT_ENCODING,
+        HttpHeaders.ACCEPT_LANGUAGE,
+        HttpHeaders.ACCEPT_RANGES,
+        HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS,
+        HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS,
+        HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS,
+        HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN,
+        HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS,
+        HttpHeaders.ACCESS_CONTROL_MAX_AGE,
+        HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS,
+        HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD,
+        HttpHeaders.ACCESS_CONTROL_REQUEST_PRIVATE_NETWORK,
+        HttpHeaders.ACCESS_CONTROL_ALLOW_PRIVATE_NETWORK,
+        HttpHeaders.AGE,
+        HttpHeaders.ALLOW,
+        HttpHeaders.AUTHORIZATION,
+        HttpHeaders.CACHE_CONTROL,
+        HttpHeaders.CONNECTION,
+        HttpHeaders.CONTENT_DISPOSITION,
+        HttpHeaders.CONTENT_ENCODING,
+        HttpHeaders.CONTENT_ID,
+        HttpHeaders.CONTENT_LANGUAGE,
+        HttpHeaders.CONTENT_LENGTH,
+        HttpHeaders.CONTENT_LOCATION,
+        HttpHeaders.CONTENT_MD5,
+        HttpHeaders.CONTENT_RANGE,
+        HttpHeaders.CONTENT_TYPE,
+        HttpHeaders.COOKIE,
+        HttpHeaders.DATE,
+        HttpHeaders.ETAG,
+        HttpHeaders.EXPIRES,
+        HttpHeaders.EXPECT,
+        HttpHeaders.FORWARDED,
+        HttpHeaders.FROM,
+        HttpHeaders.HOST,
+        HttpHeaders.IF_MATCH,
+        HttpHeaders.IF_MODIFIED_SINCE,
+        HttpHeaders.IF_NONE_MATCH,
+        HttpHeaders.IF_UNMODIFIED_SINCE,
+        HttpHeaders.KEEP_ALIVE,
+        HttpHeaders.LAST_MODIFIED,
+        HttpHeaders.LOCATION,
+        HttpHeaders.LINK,
+        HttpHeaders.MAX_FORWARDS,
+        HttpHeaders.MIME_VERSION,
+        HttpHeaders.ORIGIN,
+        HttpHeaders.PRAGMA,
+        HttpHeaders.PROXY_AUTHENTICATE,
+        HttpHeaders.PROXY_AUTHORIZATION,
+        HttpHeaders.PROXY_CONNECTION,
+        HttpHeaders.RANGE,
+        HttpHeaders.REFERER,
+        HttpHeaders.RETRY_AFTER,
+        HttpHeaders.SERVER,
+        HttpHeaders.SET_COOKIE,
+        HttpHeaders.SET_COOKIE2,
+        HttpHeaders.TE,
+        HttpHeaders.TRAILER,
+        HttpHeaders.TRANSFER_ENCODING,
+        HttpHeaders.UPGRADE,
+        HttpHeaders.USER_AGENT,
+        HttpHeaders.VARY,
+        HttpHeaders.VIA,
+        HttpHeaders.WARNING,
+        HttpHeaders.WWW_AUTHENTICATE,
+        HttpHeaders.X_FORWARDED_FOR,
+        HttpHeaders.X_FORWARDED_PROTO,
+        HttpHeaders.X_FORWARDED_SERVER,
+        HttpHeaders.X_FORWARDED_HOST,
+        HttpHeaders.X_FORWARDED_PORT,
+        HttpHeaders.X_FORWARDED_PREFIX
+    };
+
+    static final int COUNT = NAMES.length;
+
+    private static final String[] LOWER_CASE_NAMES = new String[COUNT];
+    private static final int[] HASHES = new int[COUNT];
+
+    // Ordinal + 1 of each name, indexed by identity hash code and by ASCII case-insensitive hash respectively.
+    private static final int[] BY_IDENTITY = new int[Integer.highestOneBit(COUNT) << 2];
+    private static final int[] BY_HASH = new int[BY_IDENTITY.length];
+    private static final int MASK = BY_IDENTITY.length - 1;
+
+    static {
+        for (int ordinal = 0; ordinal < COUNT; ordinal++) {
+            String name = NAMES[ordinal];
+            LOWER_CASE_NAMES[ordinal] = name.toLowerCase(Locale.ROOT);
+            HASHES[ordinal] = hashCodeIgnoreCase(name);
+            insert(BY_IDENTITY, System.identityHashCode(name), ordinal);
+            insert(BY_HASH, HASHES[ordinal], ordinal);
+        }
+    }
+
+    private KnownHeaderNames() {}
+
+    /**
+     * Return the ordinal of the given name if it is the very instance of a {@link HttpHeaders} constant, or
+     * {@link #UNKNOWN} otherwise, even when the name is equal to a well-known one.
+     */
+    static int identityOrdinalOf(final String name) {
+        for (int i = spread(System.identityHashCode(name)) & MASK;; i = (i + 1) & MASK) {
+            int ordinal = BY_IDENTITY[i] - 1;
+            if (ordinal < 0 || NAMES[ordinal] == name) {
+                return ordinal;
+            }
+        }
+    }
+
+    /**
+     * Return the ordinal of the well-known name equal to the given one ignoring case, or {@link #UNKNOWN}.
+     *
+     * @param hash the ASCII case-insensitive hash of the name
+     */
+    static int ordinalOf(final CharSequence name, final int hash) {
+        for (int i = spread(hash) & MASK;; i = (i + 1) & MASK) {
+            int ordinal = BY_HASH[i] - 1;
+            if (ordinal < 0 || (HASHES[ordinal] == hash && equalsIgnoreCase(NAMES[ordinal], name))) {
+                return ordinal;
+            }
+        }
+    }
+
+    static int ordinalOf(final String name) {
+        int ordinal = identityOrdinalOf(name);
+        return ordinal != UNKNOWN ? ordinal : ordinalOf(name, hashCodeIgnoreCase(name));
+    }
+
+    static String name(final int ordinal) {
+        return NAMES[ordinal];
+    }
+
+    static String lowerCaseName(final int ordinal) {
+        return LOWER_CASE_NAMES[ordinal];
+    }
+
+    static int hash(final int ordinal) {
+        return HASHES[ordinal];
+    }
+
+    private static void insert(final int[] table, final int hash, final int ordinal) {
+        int i = spread(hash) & MASK;
+        while (table[i] != 0) {
+            i = (i + 1) & MASK;
+        }
+        table[i] = ordinal + 1;
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -15,9 +15,9 @@
  */
 package io.gravitee.common.http;
 
+import io.gravitee.common.util.BoundedCache;
 import java.nio.charset.Charset;
 import java.util.*;
-import org.springframework.util.*;
 
 /**
  * @author Azize Elamrani (azize dot elamrani at gmail dot com)
@@ -124,26 +124,73 @@ public class MediaType {
 
     public String QUALITY_FACTOR_PARAMETER = "q";
 
+    /**
+     * Parsed media types and lists of media types, keyed by their raw value. Multipart media types are not cached as
+     * their boundary is usually unique.
+     */
+    private static final int CACHE_SIZE = 256;
+    private static final BoundedCache<String, MediaType> CACHE = new BoundedCache<>(CACHE_SIZE);
+    private static final BoundedCache<String, List<MediaType>> LIST_CACHE = new BoundedCache<>(CACHE_SIZE);
+
+    /**
+     * Derived from the type, subtype and parameters once at construction, so that sorting and matching media types
+     * only compares fields.
+     */
+    private final boolean wildcardType;
+    private final boolean wildcardSubtype;
+    private final double qualityFactor;
+    private final boolean validQualityFactor;
+    private final Charset charset;
+
     public MediaType(String type, String subtype) {
         this(type, subtype, Collections.emptyMap());
     }
 
+    /**
+     * Create a media type, type and subtype being lower-cased. The parameters are expected not to change afterwards.
+     */
     public MediaType(String type, String subtype, Map<String, String> parameters) {
-        this.type = type;
-        this.subtype = subtype;
-        this.parameters = parameters;
+        this.type = Interned.of(type.toLowerCase(Locale.ROOT));
+        this.subtype = Interned.of(subtype.toLowerCase(Locale.ROOT));
+        this.parameters = parameters == null ? Collections.emptyMap() : parameters;
+        this.wildcardType = MEDIA_TYPE_WILDCARD.equals(this.type);
+        this.wildcardSubtype = MEDIA_TYPE_WILDCARD.equals(this.subtype) || this.subtype.startsWith("*+");
+
+        String quality = this.parameters.isEmpty() ? null : this.parameters.get(QUALITY_FACTOR_PARAMETER);
+        double qualityFactor = 1.0D;
+        boolean validQualityFactor = true;
+        if (quality != null) {
+            try {
+                qualityFactor = Double.parseDouble(unquote(quality));
+            } catch (NumberFormatException e) {
+                validQualityFactor = false;
+            }
+        }
+        this.qualityFactor = qualityFactor;
+        this.validQualityFactor = validQualityFactor;
+
+        String charset = this.parameters.isEmpty() ? null : this.parameters.get(CHARSET_PARAMETER);
+        Charset resolvedCharset = null;
+        if (charset != null) {
+            try {
+                resolvedCharset = Charset.forName(unquote(charset));
+            } catch (IllegalArgumentException e) {
+                // Reported by getCharset()
+            }
+        }
+        this.charset = resolvedCharset;
     }
 
     public boolean isWildcardType() {
-        return MEDIA_TYPE_WILDCARD.equals(this.getType());
+        return this.wildcardType;
     }
 
     public boolean isWildcardSubtype() {
-        return MEDIA_TYPE_WILDCARD.equals(this.getSubtype()) || this.getSubtype().startsWith("*+");
+        return this.wildcardSubtype;
     }
 
     public boolean isConcrete() {
-        return !this.isWildcardType() && !this.isWildcardSubtype();
+        return !this.wildcardType && !this.wildcardSubtype;
     }
 
     public String getType() {
@@ -155,6 +202,9 @@ public class MediaType {
     }
 
     public Charset getCharset() {
+        if (this.charset != null) {
+            return this.charset;
+        }
         String charset = this.getParameter(CHARSET_PARAMETER);
         return charset != null ? Charset.forName(this.unquote(charset)) : null;
     }
@@ -180,24 +230,22 @@ public class MediaType {
     }
 
     public double getQualityFactor() {
-        String qualityFactor = this.getParameter(QUALITY_FACTOR_PARAMETER);
-        return qualityFactor != null ? Double.parseDouble(this.unquote(qualityFactor)) : 1.0D;
+        if (this.validQualityFactor) {
+            return this.qualityFactor;
+        }
+        return Double.parseDouble(this.unquote(this.getParameter(QUALITY_FACTOR_PARAMETER)));
     }
 
     public static List<MediaType> parseMediaTypes(List<String> mediaTypes) {
-        if (CollectionUtils.isEmpty(mediaTypes)) {
+        if (mediaTypes == null || mediaTypes.isEmpty()) {
             return Collections.emptyList();
         } else if (mediaTypes.size() == 1) {
             return parseMediaTypes(mediaTypes.get(0));
         } else {
             List<MediaType> result = new ArrayList<>(8);
-            Iterator var2 = mediaTypes.iterator();
-
-            while (var2.hasNext()) {
-                String mediaType = (String) var2.next();
+            for (String mediaType : mediaTypes) {
                 result.addAll(parseMediaTypes(mediaType));
             }
-
             return result;
         }
     }
@@ -205,35 +253,29 @@ public class MediaType {
     public static List<MediaType> parseMediaTypes(String mediaTypes) {
         if (mediaTypes == null || mediaTypes.isEmpty()) {
             return Collections.emptyList();
+        } else if (isMultipart(mediaTypes)) {
+            return MediaTypeParser.parseList(mediaTypes);
         } else {
-            List<String> tokenizedTypes = MimeTypeUtils.tokenize(mediaTypes);
-            List<MediaType> result = new ArrayList<>(tokenizedTypes.size());
-            Iterator var3 = tokenizedTypes.iterator();
-
-            while (var3.hasNext()) {
-                String type = (String) var3.next();
-                if (StringUtils.hasText(type)) {
-                    result.add(parseMediaType(type));
-                }
-            }
-
-            return result;
+            List<MediaType> cached = LIST_CACHE.computeIfAbsent(
+                mediaTypes,
+                key -> Collections.unmodifiableList(MediaTypeParser.parseList(key))
+            );
+            return new ArrayList<>(cached);
         }
     }
 
     public static MediaType parseMediaType(String mediaType) {
-        MimeType type;
-        try {
-            type = MimeTypeUtils.parseMimeType(mediaType);
-        } catch (InvalidMimeTypeException var4) {
+        if (mediaType == null || mediaType.isEmpty()) {
             return null;
+        } else if (isMultipart(mediaType)) {
+            return MediaTypeParser.parse(mediaType);
+        } else {
+            return CACHE.computeIfAbsent(mediaType, MediaTypeParser::parse);
         }
+    }
 
-        try {
-            return new MediaType(type.getType(), type.getSubtype(), type.getParameters());
-        } catch (IllegalArgumentException var3) {
-            return null;
-        }
+    private static boolean isMultipart(String mediaType) {
+        return mediaType.regionMatches(true, 0, "multipart", 0, 9);
     }
 
     public static void sortByQualityValue(List<MediaType> mediaTypes) {
@@ -259,7 +301,10 @@ public class MediaType {
             return false;
         }
         MediaType otherType = (MediaType) other;
-        return (this.type.equalsIgnoreCase(otherType.type) && this.subtype.equalsIgnoreCase(otherType.subtype));
+        return (
+            (this.type == otherType.type || this.type.equals(otherType.type)) &&
+            (this.subtype == otherType.subtype || this.subtype.equals(otherType.subtype))
+        );
     }
 
     public String toMediaString() {
@@ -272,17 +317,13 @@ public class MediaType {
         int qualityComparison = Double.compare(quality2, quality1);
         if (qualityComparison != 0) {
             return qualityComparison;
-        } else if (mediaType1.isWildcardType() && !mediaType2.isWildcardType()) {
-            return 1;
-        } else if (mediaType2.isWildcardType() && !mediaType1.isWildcardType()) {
-            return -1;
-        } else if (!mediaType1.getType().equals(mediaType2.getType())) {
+        } else if (mediaType1.wildcardType != mediaType2.wildcardType) {
+            return mediaType1.wildcardType ? 1 : -1;
+        } else if (mediaType1.type != mediaType2.type && !mediaType1.type.equals(mediaType2.type)) {
             return 0;
-        } else if (mediaType1.isWildcardSubtype() && !mediaType2.isWildcardSubtype()) {
-            return 1;
-        } else if (mediaType2.isWildcardSubtype() && !mediaType1.isWildcardSubtype()) {
-            return -1;
-        } else if (!mediaType1.getSubtype().equals(mediaType2.getSubtype())) {
+        } else if (mediaType1.wildcardSubtype != mediaType2.wildcardSubtype) {
+            return mediaType1.wildcardSubtype ? 1 : -1;
+        } else if (mediaType1.subtype != mediaType2.subtype && !mediaType1.subtype.equals(mediaType2.subtype)) {
             return 0;
         } else {
             int paramsSize1 = mediaType1.getParameters().size();
@@ -290,4 +331,56 @@ public class MediaType {
             return Integer.compare(paramsSize2, paramsSize1);
         }
     };
+
+    /**
+     * Canonical instances of the most common types and subtypes, so that media types parsed from headers share them
+     * and mostly compare by reference.
+     */
+    private static final class Interned {
+
+        private static final Map<String, String> VALUES = new HashMap<>();
+
+        static {
+            for (String value : new String[] {
+                "*",
+                "application",
+                "audio",
+                "font",
+                "image",
+                "message",
+                "multipart",
+                "text",
+                "video",
+                "atom+xml",
+                "avif",
+                "css",
+                "csv",
+                "event-stream",
+                "form-data",
+                "gif",
+                "grpc",
+                "html",
+                "javascript",
+                "jpeg",
+                "json",
+                "jwt",
+                "octet-stream",
+                "plain",
+                "png",
+                "problem+json",
+                "svg+xml",
+                "webp",
+                "x-www-form-urlencoded",
+                "xhtml+xml",
+                "xml",
+            }) {
+                VALUES.put(value, value);
+            }
+        }
+
+        static String of(String value) {
+            String interned = VALUES.get(value);
+            return interned != null ? interned : value;
+        }
+    }
 }
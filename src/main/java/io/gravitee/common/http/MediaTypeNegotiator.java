@@ -0,0 +1,210 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import io.gravitee.common.util.BoundedCache;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Select, among a fixed set of producible media types, the one that best matches the {@code Accept} header of a
+ * request.
+ *
+ * Each producible media type takes the quality factor of the most specific range that matches it: an exact
+ * {@code type/subtype} range wins over {@code type/*} (or {@code type/*+suffix}) which wins over {@code *}{@code /*}.
+ * The producible media type with the highest quality wins, ties going to the first one declared. Parameters other
+ * than the quality factor are ignored.
+ *
+ * The lookup tables are built once and the result is cached for each distinct {@code Accept} value, so negotiating
+ * the same header twice does not parse nor sort anything. Instances are thread-safe.
+ *
+ * @author GraviteeSource Team
+ */
+public final class MediaTypeNegotiator {
+
+    private static final int CACHE_SIZE = 128;
+    private static final int NO_MATCH = -1;
+    private static final int[] NONE = new int[0];
+
+    private static final int ANY = 1;
+    private static final int TYPE = 2;
+    private static final int EXACT = 3;
+
+    private final MediaType[] producible;
+    private final String[] types;
+    private final String[] subtypes;
+    private final Map<String, int[]> byMediaString;
+    private final Map<String, int[]> byType;
+    private final BoundedCache<String, Integer> cache = new BoundedCache<>(CACHE_SIZE);
+
+    private MediaTypeNegotiator(final List<MediaType> producible) {
+        if (producible == null || producible.isEmpty()) {
+            throw new IllegalArgumentException("At least one producible media type is required");
+        }
+        int size = producible.size();
+        this.producible = new MediaType[size];
+        this.types = new String[size];
+        this.subtypes = new String[size];
+        this.byMediaString = new HashMap<>();
+        this.byType = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            MediaType mediaType = producible.get(i);
+            if (mediaType == null || !mediaType.isConcrete()) {
+                throw new IllegalArgumentException("Producible media types must be concrete: " + mediaType);
+            }
+            this.producible[i] = mediaType;
+            this.types[i] = mediaType.getType();
+            this.subtypes[i] = mediaType.getSubtype();
+            byMediaString.merge(this.types[i] + '/' + this.subtypes[i], new int[] { i }, MediaTypeNegotiator::concat);
+            byType.merge(this.types[i], new int[] { i }, MediaTypeNegotiator::concat);
+        }
+    }
+
+    public static MediaTypeNegotiator of(MediaType... producible) {
+        return new MediaTypeNegotiator(producible == null ? null : Arrays.asList(producible));
+    }
+
+    public static MediaTypeNegotiator of(List<MediaType> producible) {
+        return new MediaTypeNegotiator(producible);
+    }
+
+    public List<MediaType> producible() {
+        return Collections.unmodifiableList(Arrays.asList(producible));
+    }
+
+    /**
+     * Negotiate against the {@code Accept} header(s) of the given headers.
+     */
+    public MediaType negotiate(HttpHeaders headers) {
+        return negotiate(headers.get(HttpHeaders.ACCEPT));
+    }
+
+    /**
+     * Negotiate against the given {@code Accept} header values.
+     * @return the best producible media type, the first one if there is no value, or {@code null} if none is acceptable
+     */
+    public MediaType negotiate(List<String> accept) {
+        if (accept == null || accept.isEmpty()) {
+            return producible[0];
+        } else if (accept.size() == 1) {
+            return negotiate(accept.get(0));
+        }
+        return bestMatch(MediaType.parseMediaTypes(accept));
+    }
+
+    /**
+     * Negotiate against the given {@code Accept} header value.
+     * @return the best producible media type, the first one if the value is empty, or {@code null} if none is
+     * acceptable
+     */
+    public MediaType negotiate(String accept) {
+        if (accept == null || accept.isEmpty()) {
+            return producible[0];
+        }
+        int index = cache.computeIfAbsent(accept, key -> indexOfBestMatch(MediaType.parseMediaTypes(key)));
+        return index == NO_MATCH ? null : producible[index];
+    }
+
+    /**
+     * Negotiate against already parsed media ranges. Invalid ranges, represented by {@code null}, are ignored.
+     * @return the best producible media type, the first one if there is no range, or {@code null} if none is acceptable
+     */
+    public MediaType bestMatch(List<MediaType> accept) {
+        if (accept == null || accept.isEmpty()) {
+            return producible[0];
+        }
+        int index = indexOfBestMatch(accept);
+        return index == NO_MATCH ? null : producible[index];
+    }
+
+    private int indexOfBestMatch(final List<MediaType> accept) {
+        if (accept.isEmpty()) {
+            return 0;
+        }
+        int[] specificities = new int[producible.length];
+        double[] qualities = new double[producible.length];
+        for (int r = 0; r < accept.size(); r++) {
+            MediaType range = accept.get(r);
+            double quality = qualityOf(range);
+            if (quality < 0) {
+                continue;
+            }
+            String type = range.getType();
+            String subtype = range.getSubtype();
+            if (range.isWildcardType()) {
+                for (int i = 0; i < producible.length; i++) {
+                    update(specificities, qualities, i, ANY, quality);
+                }
+            } else if (MediaType.MEDIA_TYPE_WILDCARD.equals(subtype)) {
+                for (int i : byType.getOrDefault(type, NONE)) {
+                    update(specificities, qualities, i, TYPE, quality);
+                }
+            } else if (range.isWildcardSubtype()) {
+                String suffix = subtype.substring(1);
+                for (int i : byType.getOrDefault(type, NONE)) {
+                    if (subtypes[i].endsWith(suffix)) {
+                        update(specificities, qualities, i, TYPE, quality);
+                    }
+                }
+            } else {
+                for (int i : byMediaString.getOrDefault(type + '/' + subtype, NONE)) {
+                    update(specificities, qualities, i, EXACT, quality);
+                }
+            }
+        }
+
+        int best = NO_MATCH;
+        double bestQuality = 0;
+        for (int i = 0; i < producible.length; i++) {
+            if (specificities[i] != 0 && qualities[i] > bestQuality) {
+                best = i;
+                bestQuality = qualities[i];
+            }
+        }
+        return best;
+    }
+
+    private static void update(int[] specificities, double[] qualities, int index, int specificity, double quality) {
+        if (specificity > specificities[index]) {
+            specificities[index] = specificity;
+            qualities[index] = quality;
+        }
+    }
+
+    /**
+     * @return the quality factor of the range, or {@code -1} if the range or its quality factor is invalid
+     */
+    private static double qualityOf(final MediaType range) {
+        if (range == null) {
+            return -1;
+        }
+        try {
+            double quality = range.getQualityFactor();
+            return quality >= 0 && quality <= 1 ? quality : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        int[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
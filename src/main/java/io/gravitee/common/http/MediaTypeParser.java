@@ -0,0 +1,220 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import io.gravitee.common.util.LinkedCaseInsensitiveMap;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass parser of media types, as found in {@code Content-Type} and {@code Accept} headers.
+ *
+ * It accepts and rejects the same inputs as the Spring {@code MimeTypeUtils} it replaces: type, subtype and parameter
+ * names must be RFC 2616 tokens, parameter values either tokens or quoted strings, the {@code charset} parameter a
+ * supported charset, and a lone {@code *} stands for {@code *}{@code /*}. Type and subtype are lower-cased by
+ * {@link MediaType} while parameter names are matched ignoring case.
+ *
+ * @author GraviteeSource Team
+ */
+final class MediaTypeParser {
+
+    private static final boolean[] TOKEN = new boolean[128];
+
+    static {
+        for (char c = 32; c < 127; c++) {
+            TOKEN[c] = true;
+        }
+        for (char c : "()<>@,;:\\\"/[]?={} \t".toCharArray()) {
+            TOKEN[c] = false;
+        }
+    }
+
+    private MediaTypeParser() {}
+
+    /**
+     * Parse a single media type.
+     * @return the media type or {@code null} if it is empty or invalid
+     */
+    static MediaType parse(final String value) {
+        return value == null ? null : parse(value, 0, value.length());
+    }
+
+    /**
+     * Parse a comma separated list of media types, ignoring blank elements. Invalid elements are returned as
+     * {@code null}.
+     */
+    static List<MediaType> parseList(final String value) {
+        if (value == null || value.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<MediaType> mediaTypes = new ArrayList<>(4);
+        boolean quoted = false;
+        int start = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                addElement(mediaTypes, value, start, i);
+                start = i + 1;
+            } else if (c == '\\') {
+                i++;
+            }
+        }
+        addElement(mediaTypes, value, start, length);
+        return mediaTypes;
+    }
+
+    private static void addElement(final List<MediaType> mediaTypes, final String value, final int from, final int to) {
+        if (skipWhitespaces(value, from, to) < to) {
+            mediaTypes.add(parse(value, from, to));
+        }
+    }
+
+    private static MediaType parse(final String value, final int from, final int to) {
+        int start = skipWhitespaces(value, from, to);
+        int semicolon = indexOf(value, ';', start, to);
+        int end = trimEnd(value, start, semicolon < 0 ? to : semicolon);
+        if (end == start) {
+            return null;
+        }
+
+        String type;
+        String subtype;
+        if (end - start == 1 && value.charAt(start) == '*') {
+            type = MediaType.MEDIA_TYPE_WILDCARD;
+            subtype = MediaType.MEDIA_TYPE_WILDCARD;
+        } else {
+            int slash = indexOf(value, '/', start, end);
+            if (slash < 0 || !isToken(value, start, slash) || !isToken(value, slash + 1, end)) {
+                return null;
+            }
+            type = value.substring(start, slash);
+            subtype = value.substring(slash + 1, end);
+            if (MediaType.MEDIA_TYPE_WILDCARD.equals(type) && !MediaType.MEDIA_TYPE_WILDCARD.equals(subtype)) {
+                return null;
+            }
+        }
+
+        Map<String, String> parameters = Collections.emptyMap();
+        int index = semicolon;
+        while (index >= 0 && index < to) {
+            int next = index + 1;
+            boolean quoted = false;
+            while (next < to) {
+                char c = value.charAt(next);
+                if (c == ';' && !quoted) {
+                    break;
+                } else if (c == '"') {
+                    quoted = !quoted;
+                }
+                next++;
+            }
+            int parameterStart = skipWhitespaces(value, index + 1, next);
+            int parameterEnd = trimEnd(value, parameterStart, next);
+            int equals = indexOf(value, '=', parameterStart, parameterEnd);
+            if (equals >= 0) {
+                int nameEnd = trimEnd(value, parameterStart, equals);
+                int valueStart = skipWhitespaces(value, equals + 1, parameterEnd);
+                if (!isToken(value, parameterStart, nameEnd) || !isTokenOrQuoted(value, valueStart, parameterEnd)) {
+                    return null;
+                }
+                String name = value.substring(parameterStart, nameEnd);
+                String parameterValue = value.substring(valueStart, parameterEnd);
+                if (MediaType.CHARSET_PARAMETER.equals(name) && !isSupportedCharset(parameterValue)) {
+                    return null;
+                }
+                if (parameters.isEmpty()) {
+                    parameters = new LinkedCaseInsensitiveMap<>(4);
+                }
+                parameters.put(name, parameterValue);
+            }
+            index = next;
+        }
+
+        if (!parameters.isEmpty()) {
+            parameters = Collections.unmodifiableMap(parameters);
+        }
+        return new MediaType(type, subtype, parameters);
+    }
+
+    private static boolean isToken(final String value, final int from, final int to) {
+        if (from >= to) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c >= 128 || !TOKEN[c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTokenOrQuoted(final String value, final int from, final int to) {
+        if (to - from >= 2) {
+            char first = value.charAt(from);
+            char last = value.charAt(to - 1);
+            if ((first == '"' && last == '"') || (first == '\'' && last == '\'')) {
+                return true;
+            }
+        }
+        return isToken(value, from, to);
+    }
+
+    private static boolean isSupportedCharset(final String value) {
+        String charset = value;
+        char first = value.charAt(0);
+        if (value.length() >= 2 && (first == '"' || first == '\'') && value.charAt(value.length() - 1) == first) {
+            charset = value.substring(1, value.length() - 1);
+        }
+        try {
+            Charset.forName(charset);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static int indexOf(final String value, final char c, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            if (value.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipWhitespaces(final String value, final int from, final int to) {
+        int i = from;
+        while (i < to && value.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int trimEnd(final String value, final int from, final int to) {
+        int i = to;
+        while (i > from && value.charAt(i - 1) <= ' ') {
+            i--;
+        }
+        return i;
+    }
+}
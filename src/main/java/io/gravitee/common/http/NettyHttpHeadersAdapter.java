@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import io.gravitee.common.util.LinkedCaseInsensitiveMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link io.gravitee.common.util.MultiValueMap} view of Netty {@link io.netty.handler.codec.http.HttpHeaders}, so that
+ * headers received or sent by the server layer can be handed to policies without being copied.
+ *
+ * @author GraviteeSource Team
+ */
+public class NettyHttpHeadersAdapter extends HeadersAdapter {
+
+    private final io.netty.handler.codec.http.HttpHeaders headers;
+
+    public NettyHttpHeadersAdapter(io.netty.handler.codec.http.HttpHeaders headers) {
+        this.headers = headers;
+    }
+
+    /**
+     * Return the adapted headers.
+     */
+    public io.netty.handler.codec.http.HttpHeaders headers() {
+        return headers;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return headers.isEmpty();
+    }
+
+    @Override
+    protected String first(CharSequence name) {
+        return headers.get(name);
+    }
+
+    @Override
+    protected List<String> all(CharSequence name) {
+        return headers.getAll(name);
+    }
+
+    @Override
+    protected boolean has(CharSequence name) {
+        return headers.contains(name);
+    }
+
+    @Override
+    protected Set<String> names() {
+        // Netty returns the names as added, so that names differing by case only are folded here in a single pass
+        LinkedCaseInsensitiveMap<Boolean> names = new LinkedCaseInsensitiveMap<>(headers.size(), Locale.ROOT);
+        Iterator<Map.Entry<CharSequence, CharSequence>> entries = headers.iteratorCharSequence();
+        while (entries.hasNext()) {
+            names.putIfAbsent(entries.next().getKey().toString(), Boolean.TRUE);
+        }
+        return names.keySet();
+    }
+
+    @Override
+    protected void addValue(String name, String value) {
+        headers.add(name, value);
+    }
+
+    @Override
+    protected void setValue(String name, String value) {
+        headers.set(name, value);
+    }
+
+    @Override
+    protected void setValues(String name, List<String> values) {
+        headers.set(name, values);
+    }
+
+    @Override
+    protected void removeHeader(CharSequence name) {
+        headers.remove(name);
+    }
+
+    @Override
+    protected void removeHeaders() {
+        headers.clear();
+    }
+}
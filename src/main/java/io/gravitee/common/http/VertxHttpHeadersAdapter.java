@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import io.vertx.core.MultiMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link io.gravitee.common.util.MultiValueMap} view of a Vert.x {@link MultiMap}, so that headers received or sent by
+ * the server layer can be handed to policies without being copied.
+ *
+ * @author GraviteeSource Team
+ */
+public class VertxHttpHeadersAdapter extends HeadersAdapter {
+
+    private final MultiMap headers;
+
+    public VertxHttpHeadersAdapter(MultiMap headers) {
+        this.headers = headers;
+    }
+
+    /**
+     * Return the adapted headers.
+     */
+    public MultiMap headers() {
+        return headers;
+    }
+
+    @Override
+    public int size() {
+        return headers.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return headers.isEmpty();
+    }
+
+    @Override
+    protected String first(CharSequence name) {
+        return headers.get(name);
+    }
+
+    @Override
+    protected List<String> all(CharSequence name) {
+        return headers.getAll(name);
+    }
+
+    @Override
+    protected boolean has(CharSequence name) {
+        return headers.contains(name);
+    }
+
+    @Override
+    protected Set<String> names() {
+        return headers.names();
+    }
+
+    @Override
+    protected void addValue(String name, String value) {
+        headers.add(name, value);
+    }
+
+    @Override
+    protected void setValue(String name, String value) {
+        headers.set(name, value);
+    }
+
+    @Override
+    protected void setValues(String name, List<String> values) {
+        headers.set(name, Collections.<CharSequence>unmodifiableList(values));
+    }
+
+    @Override
+    protected void removeHeader(CharSequence name) {
+        headers.remove(name);
+    }
+
+    @Override
+    protected void removeHeaders() {
+        headers.clear();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+/**
+ * ASCII case-insensitive helpers for protocol tokens such as HTTP header names, which don't need the locale-sensitive
+ * case conversion of {@link String#toLowerCase()} and can be compared without allocating a lower-cased copy.
+ *
+ * @author GraviteeSource Team
+ */
+public final class AsciiUtils {
+
+    private AsciiUtils() {}
+
+    /**
+     * Compute a hash ignoring the case of ASCII letters. For a string without upper-case ASCII letters, the result is
+     * equal to {@link String#hashCode()}.
+     */
+    public static int hashCodeIgnoreCase(final CharSequence value) {
+        int hash = 0;
+        for (int i = 0, length = value.length(); i < length; i++) {
+            hash = 31 * hash + toLowerCase(value.charAt(i));
+        }
+        return hash;
+    }
+
+    /**
+     * Compare two char sequences ignoring the case of ASCII letters.
+     */
+    public static boolean equalsIgnoreCase(final CharSequence value, final CharSequence other) {
+        if (value == other) {
+            return true;
+        }
+        int length = value.length();
+        if (length != other.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c1 = value.charAt(i);
+            char c2 = other.charAt(i);
+            if (c1 != c2 && toLowerCase(c1) != toLowerCase(c2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether the given char sequence only contains ASCII characters
+     */
+    public static boolean isAscii(final CharSequence value) {
+        for (int i = 0, length = value.length(); i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static char toLowerCase(final char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Thread-safe cache holding at most a fixed number of entries, meant to memoize the result of parsing or encoding
+ * frequently repeated values.
+ *
+ * Lookups are plain {@link ConcurrentHashMap} reads. When the cache is full, the oldest entries are evicted first,
+ * which is cheaper to maintain than a least recently used order and good enough for values that are either repeated
+ * all the time or rarely seen. The cache can also be bounded by the total weight of its entries, as given by a weigher
+ * function, entries heavier than this limit being never cached. Hits and misses are counted.
+ *
+ * @author GraviteeSource Team
+ */
+public class BoundedCache<K, V> {
+
+    private final int maximumSize;
+    private final long maximumWeight;
+    private final ToIntBiFunction<? super K, ? super V> weigher;
+    private final ConcurrentHashMap<K, V> entries;
+    private final Queue<K> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong weight = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public BoundedCache(int maximumSize) {
+        this(maximumSize, Long.MAX_VALUE, (key, value) -> 0);
+    }
+
+    /**
+     * @param maximumSize the maximum number of entries
+     * @param maximumWeight the maximum total weight of the entries
+     * @param weigher the function giving the weight of an entry, which must not change once cached
+     */
+    public BoundedCache(int maximumSize, long maximumWeight, ToIntBiFunction<? super K, ? super V> weigher) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive");
+        }
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.entries = new ConcurrentHashMap<>(Math.min(maximumSize, 256));
+    }
+
+    /**
+     * Return the value cached for the given key, or {@code null}.
+     */
+    public V get(K key) {
+        V value = entries.get(key);
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    /**
+     * Return the value cached for the given key, computing and caching it if absent. Values computed as
+     * {@code null} are not cached.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        value = mappingFunction.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Cache the given value, evicting the oldest entries if the cache is full. Values heavier than the maximum weight
+     * are not cached.
+     */
+    public void put(K key, V value) {
+        int entryWeight = weigher.applyAsInt(key, value);
+        if (entryWeight > maximumWeight) {
+            return;
+        }
+        V previous = entries.put(key, value);
+        if (previous == null) {
+            insertionOrder.add(key);
+            size.incrementAndGet();
+            weight.addAndGet(entryWeight);
+        } else {
+            weight.addAndGet(entryWeight - weigher.applyAsInt(key, previous));
+        }
+        if (size.get() > maximumSize || weight.get() > maximumWeight) {
+            evict();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the total weight of the cached entries
+     */
+    public long weight() {
+        return weight.get();
+    }
+
+    /**
+     * @return the number of lookups that found a cached value
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of lookups that did not find a cached value
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public void clear() {
+        K key;
+        while ((key = insertionOrder.poll()) != null) {
+            remove(key);
+        }
+    }
+
+    private void evict() {
+        while (size.get() > maximumSize || weight.get() > maximumWeight) {
+            K eldest = insertionOrder.poll();
+            if (eldest == null) {
+                return;
+            }
+            remove(eldest);
+        }
+    }
+
+    private void remove(K key) {
+        V removed = entries.remove(key);
+        if (removed != null) {
+            size.decrementAndGet();
+            weight.addAndGet(-weigher.applyAsInt(key, removed));
+        }
+    }
+}
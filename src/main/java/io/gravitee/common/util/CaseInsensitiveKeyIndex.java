@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing index of strings, hashed and compared ignoring the case of ASCII letters, backing the case-insensitive
+ * lookups of {@link LinkedCaseInsensitiveMap} and {@link LinkedCaseInsensitiveSet}. Deletion shifts back the following
+ * entries of the probe sequence so that no tombstone is needed.
+ *
+ * @author GraviteeSource Team
+ */
+final class CaseInsensitiveKeyIndex {
+
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private String[] keys;
+    private int[] hashes;
+    private int size;
+
+    CaseInsensitiveKeyIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+        this.keys = new String[Math.min(capacity, MAXIMUM_CAPACITY)];
+        this.hashes = new int[keys.length];
+    }
+
+    String get(String key) {
+        int slot = slotOf(key, AsciiUtils.hashCodeIgnoreCase(key));
+        return slot < 0 ? null : keys[slot];
+    }
+
+    /**
+     * Store the given key, replacing any key equal ignoring case.
+     * @return the replaced key or {@code null} if there was none
+     */
+    String put(String key) {
+        int hash = AsciiUtils.hashCodeIgnoreCase(key);
+        int slot = slotOf(key, hash);
+        if (slot >= 0) {
+            String oldKey = keys[slot];
+            keys[slot] = key;
+            return oldKey;
+        }
+        insert(key, hash);
+        return null;
+    }
+
+    /**
+     * Store the given key only if no key equal ignoring case is present.
+     * @return the present key or {@code null} if the given key has been stored
+     */
+    String putIfAbsent(String key) {
+        int hash = AsciiUtils.hashCodeIgnoreCase(key);
+        int slot = slotOf(key, hash);
+        if (slot >= 0) {
+            return keys[slot];
+        }
+        insert(key, hash);
+        return null;
+    }
+
+    /**
+     * Replace the key equal ignoring case to the given one, if any.
+     * @return the replaced key or {@code null} if there was none
+     */
+    String replace(String key) {
+        int slot = slotOf(key, AsciiUtils.hashCodeIgnoreCase(key));
+        if (slot < 0) {
+            return null;
+        }
+        String oldKey = keys[slot];
+        keys[slot] = key;
+        return oldKey;
+    }
+
+    String remove(String key) {
+        int slot = slotOf(key, AsciiUtils.hashCodeIgnoreCase(key));
+        if (slot < 0) {
+            return null;
+        }
+        String oldKey = keys[slot];
+        int mask = keys.length - 1;
+        int gap = slot;
+        for (int i = (slot + 1) & mask; keys[i] != null; i = (i + 1) & mask) {
+            int ideal = spread(hashes[i]) & mask;
+            if (((i - ideal) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                hashes[gap] = hashes[i];
+                gap = i;
+            }
+        }
+        keys[gap] = null;
+        size--;
+        return oldKey;
+    }
+
+    void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    private int slotOf(String key, int hash) {
+        int mask = keys.length - 1;
+        for (int i = spread(hash) & mask;; i = (i + 1) & mask) {
+            String candidate = keys[i];
+            if (candidate == null) {
+                return -1;
+            }
+            if (hashes[i] == hash && AsciiUtils.equalsIgnoreCase(candidate, key)) {
+                return i;
+            }
+        }
+    }
+
+    private void insert(String key, int hash) {
+        if ((size + 1) * 2 > keys.length && keys.length < MAXIMUM_CAPACITY) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        int i = spread(hash) & mask;
+        while (keys[i] != null) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        hashes[i] = hash;
+        size++;
+    }
+
+    private void resize() {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        keys = new String[oldKeys.length << 1];
+        hashes = new int[keys.length];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != null) {
+                int i = spread(oldHashes[j]) & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                hashes[i] = oldHashes[j];
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,465 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * {@link MultiValueMap} optimized for keys having a single value, as most query parameters and form fields do.
+ *
+ * A single value is stored inline, directly in the underlying {@link LinkedHashMap}, and only promoted to an
+ * {@link ArrayList} when a second value is added or when the list of values is modified, the lists returned being
+ * live as with {@link LinkedMultiValueMap}. Reads never modify the map, so that once built it can be read by several
+ * threads as a {@link LinkedMultiValueMap} can. Insertion order is preserved. Lists given to
+ * {@link #put(Object, List)} are copied.
+ *
+ * @author GraviteeSource Team
+ */
+@SuppressWarnings("unchecked")
+public class CompactMultiValueMap<K, V> implements MultiValueMap<K, V>, Serializable {
+
+    private static final long serialVersionUID = -2361741785946327426L;
+
+    /**
+     * Stands for a single {@code null} value, as {@code null} means the key is absent.
+     */
+    private enum Null {
+        VALUE,
+    }
+
+    /**
+     * Values of a key once promoted. Being private, it can not be mistaken for a single value.
+     */
+    private static final class Values<V> extends ArrayList<V> {
+
+        private static final long serialVersionUID = 6893275301651218547L;
+
+        // Single value these values have been promoted from, so that the lists returned for it follow them.
+        private final transient Object origin;
+
+        private Values(Object origin) {
+            super(2);
+            this.origin = origin;
+        }
+
+        private Values(Collection<? extends V> values) {
+            super(values);
+            this.origin = null;
+        }
+    }
+
+    private final LinkedHashMap<K, Object> entries;
+
+    public CompactMultiValueMap() {
+        this.entries = new LinkedHashMap<>();
+    }
+
+    public CompactMultiValueMap(int initialCapacity) {
+        this.entries = new LinkedHashMap<>(initialCapacity);
+    }
+
+    /**
+     * Copy constructor, the lists of values being copied too.
+     */
+    public CompactMultiValueMap(Map<K, List<V>> otherMap) {
+        this.entries = new LinkedHashMap<>(Math.max(otherMap.size() * 2, 16));
+        putAll(otherMap);
+    }
+
+    // MultiValueMap implementation
+
+    @Override
+    public V getFirst(K key) {
+        Object raw = entries.get(key);
+        if (raw instanceof Values) {
+            List<V> values = (Values<V>) raw;
+            return values.isEmpty() ? null : values.get(0);
+        }
+        return raw == null ? null : single(raw);
+    }
+
+    @Override
+    public void add(K key, V value) {
+        Object raw = entries.get(key);
+        if (raw == null) {
+            entries.put(key, wrap(value));
+        } else if (raw instanceof Values) {
+            ((Values<V>) raw).add(value);
+        } else {
+            Values<V> values = promote(raw);
+            values.add(value);
+            entries.put(key, values);
+        }
+    }
+
+    @Override
+    public void set(K key, V value) {
+        entries.put(key, wrap(value));
+    }
+
+    @Override
+    public void setAll(Map<K, V> values) {
+        values.forEach(this::set);
+    }
+
+    @Override
+    public Map<K, V> toSingleValueMap() {
+        LinkedHashMap<K, V> singleValueMap = new LinkedHashMap<>(Math.max(entries.size() * 2, 16));
+        entries.forEach((key, raw) -> {
+            if (raw instanceof Values) {
+                singleValueMap.put(key, ((Values<V>) raw).get(0));
+            } else {
+                singleValueMap.put(key, single(raw));
+            }
+        });
+        return singleValueMap;
+    }
+
+    @Override
+    public boolean containsAllKeys(Collection<K> keys) {
+        return entries.keySet().containsAll(keys);
+    }
+
+    // Map implementation
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return entries.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (Object raw : entries.values()) {
+            if (view(raw).equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<V> get(Object key) {
+        Object raw = entries.get(key);
+        if (raw == null || raw instanceof Values) {
+            return (Values<V>) raw;
+        }
+        return new SingleValue((K) key, raw);
+    }
+
+    @Override
+    public List<V> put(K key, List<V> value) {
+        return view(entries.put(key, new Values<>(value)));
+    }
+
+    @Override
+    public List<V> remove(Object key) {
+        return view(entries.remove(key));
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends List<V>> map) {
+        map.forEach(this::put);
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return entries.keySet();
+    }
+
+    @Override
+    public Collection<List<V>> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<List<V>> iterator() {
+                Iterator<Entry<K, List<V>>> iterator = entrySet().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public List<V> next() {
+                        return iterator.next().getValue();
+                    }
+
+                    @Override
+                    public void remove() {
+                        iterator.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<K, List<V>>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, List<V>>> iterator() {
+                Iterator<Entry<K, Object>> iterator = entries.entrySet().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<K, List<V>> next() {
+                        return new ValuesEntry(iterator.next());
+                    }
+
+                    @Override
+                    public void remove() {
+                        iterator.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof Map<?, ?> other) || other.size() != entries.size()) {
+            return false;
+        }
+        for (Entry<K, Object> entry : entries.entrySet()) {
+            Object otherValues = other.get(entry.getKey());
+            if (otherValues == null || !view(entry.getValue()).equals(otherValues)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (Entry<K, Object> entry : entries.entrySet()) {
+            hashCode += Objects.hashCode(entry.getKey()) ^ view(entry.getValue()).hashCode();
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (Entry<K, Object> entry : entries.entrySet()) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(entry.getKey()).append('=').append(view(entry.getValue()));
+        }
+        return builder.append('}').toString();
+    }
+
+    private Object wrap(final V value) {
+        return value == null ? Null.VALUE : value;
+    }
+
+    private V single(final Object raw) {
+        return raw == Null.VALUE ? null : (V) raw;
+    }
+
+    private Values<V> promote(final Object raw) {
+        Values<V> values = new Values<>(raw);
+        values.add(single(raw));
+        return values;
+    }
+
+    /**
+     * @return the values without promoting them, as a read-only list for a single value
+     */
+    private List<V> view(final Object raw) {
+        if (raw == null || raw instanceof Values) {
+            return (Values<V>) raw;
+        }
+        return Collections.singletonList(single(raw));
+    }
+
+    /**
+     * List of the single value of a key, returned instead of promoting the value so that reading does not modify the
+     * map. The value is only promoted by the first change made through the list. The list follows the values of the key
+     * as long as they are promoted from the value it has been created for, and is detached from the map otherwise, as a
+     * list of {@link LinkedMultiValueMap} replaced by {@link #put(Object, List)} or {@link #set(Object, Object)} is.
+     */
+    private final class SingleValue extends AbstractList<V> implements RandomAccess {
+
+        private final K key;
+        private final Object raw;
+        // Values followed once the value has been promoted, or detached copy of the value, null until either happens.
+        private List<V> values;
+
+        private SingleValue(final K key, final Object raw) {
+            this.key = key;
+            this.raw = raw;
+        }
+
+        @Override
+        public V get(int index) {
+            List<V> current = values();
+            if (current != null) {
+                return current.get(index);
+            }
+            Objects.checkIndex(index, 1);
+            return single(raw);
+        }
+
+        @Override
+        public int size() {
+            List<V> current = values();
+            return current == null ? 1 : current.size();
+        }
+
+        @Override
+        public V set(int index, V value) {
+            return modifiableValues().set(index, value);
+        }
+
+        @Override
+        public void add(int index, V value) {
+            modifiableValues().add(index, value);
+            modCount++;
+        }
+
+        @Override
+        public V remove(int index) {
+            V previous = modifiableValues().remove(index);
+            modCount++;
+            return previous;
+        }
+
+        /**
+         * @return the values followed by this list, or {@code null} while the value is still stored inline
+         */
+        private List<V> values() {
+            if (values == null) {
+                Object current = entries.get(key);
+                if (current == raw) {
+                    return null;
+                }
+                if (current instanceof Values<?> promoted && promoted.origin == raw) {
+                    values = (Values<V>) promoted;
+                } else {
+                    values = new ArrayList<>(1);
+                    values.add(single(raw));
+                }
+            }
+            return values;
+        }
+
+        private List<V> modifiableValues() {
+            List<V> current = values();
+            if (current == null) {
+                current = promote(raw);
+                entries.put(key, current);
+                values = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Entry returning the lists of values as {@link #get(Object)} does, without promoting a single value when read.
+     */
+    private final class ValuesEntry implements Entry<K, List<V>> {
+
+        private final Entry<K, Object> entry;
+
+        private ValuesEntry(final Entry<K, Object> entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public K getKey() {
+            return entry.getKey();
+        }
+
+        @Override
+        public List<V> getValue() {
+            Object raw = entry.getValue();
+            if (raw instanceof Values) {
+                return (Values<V>) raw;
+            }
+            return new SingleValue(entry.getKey(), raw);
+        }
+
+        @Override
+        public List<V> setValue(List<V> value) {
+            return view(entry.setValue(new Values<>(value)));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return (
+                obj instanceof Entry<?, ?> other &&
+                Objects.equals(getKey(), other.getKey()) &&
+                view(entry.getValue()).equals(other.getValue())
+            );
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ view(entry.getValue()).hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + view(entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import io.gravitee.gateway.api.buffer.Buffer;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ByteProcessor;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming decoder of {@code application/x-www-form-urlencoded} bodies.
+ *
+ * Chunks are decoded byte by byte as they come, {@code +} and percent-encoded bytes being decoded on the fly into a
+ * reused byte buffer, so that the body is never materialized as a whole nor as a string: only the names and values are,
+ * as UTF-8. Escapes split across chunks are supported. Fields are split as {@link URIUtils#parameters(String, boolean)}
+ * splits query parameters: a field without {@code =} has a {@code null} value and {@code =} signs leading a field are
+ * skipped, e.g. {@code =x} is the field {@code x} without value. Unlike query parameters, empty fields (e.g.
+ * {@code a=1&&b=2} or {@code a=1&=&b=2}) are always skipped rather than added with an empty name when not last.
+ * Invalid escapes are kept as is.
+ *
+ * The number of fields and the size of the body are limited, exceeding one of them fails the decoding with an
+ * {@link IllegalArgumentException}. A decoder is meant for a single body and is not thread-safe.
+ *
+ * @author GraviteeSource Team
+ */
+public final class FormUrlEncodedDecoder {
+
+    private static final int NO_ESCAPE = 0;
+    private static final int ESCAPE_STARTED = 1;
+    private static final int ESCAPE_HALF_READ = 2;
+
+    private final int maxFields;
+    private final long maxSize;
+    private final MultiValueMap<String, String> fields = new CompactMultiValueMap<>();
+    private final ByteProcessor processor = this::process;
+
+    private byte[] component = new byte[64];
+    private int componentLength;
+    private String name;
+    private boolean fieldStarted;
+    private int escape = NO_ESCAPE;
+    private byte escapeHighChar;
+    private long size;
+    private int fieldCount;
+
+    /**
+     * @param maxFields the maximum number of fields, repeated names included
+     * @param maxSize the maximum size of the body, in bytes
+     */
+    public FormUrlEncodedDecoder(int maxFields, long maxSize) {
+        if (maxFields <= 0 || maxSize <= 0) {
+            throw new IllegalArgumentException("Form limits must be positive");
+        }
+        this.maxFields = maxFields;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Decode the given body.
+     * @return the decoded fields, or an {@link IllegalArgumentException} error if a limit is exceeded
+     */
+    public static Single<MultiValueMap<String, String>> decode(Flowable<Buffer> body, int maxFields, long maxSize) {
+        return body
+            .reduceWith(() -> new FormUrlEncodedDecoder(maxFields, maxSize), FormUrlEncodedDecoder::offer)
+            .map(FormUrlEncodedDecoder::end);
+    }
+
+    /**
+     * Decode the next chunk of the body.
+     */
+    public FormUrlEncodedDecoder offer(Buffer chunk) {
+        ByteBuf buffer = chunk.getNativeBuffer();
+        int length = buffer.readableBytes();
+        consume(length);
+        if (length > 0) {
+            buffer.forEachByte(buffer.readerIndex(), length, processor);
+        }
+        return this;
+    }
+
+    /**
+     * Decode the next chunk of the body.
+     */
+    public FormUrlEncodedDecoder offer(byte[] chunk, int offset, int length) {
+        consume(length);
+        for (int i = offset; i < offset + length; i++) {
+            process(chunk[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Complete the decoding once the whole body has been given.
+     * @return the decoded fields, in order
+     */
+    public MultiValueMap<String, String> end() {
+        endField();
+        return fields;
+    }
+
+    private void consume(final int length) {
+        size += length;
+        if (size > maxSize) {
+            throw new IllegalArgumentException("Form body exceeds the maximum size of " + maxSize + " bytes");
+        }
+    }
+
+    private boolean process(final byte b) {
+        if (escape == ESCAPE_STARTED) {
+            if (hexDigit(b) >= 0) {
+                escapeHighChar = b;
+                escape = ESCAPE_HALF_READ;
+                return true;
+            }
+            escape = NO_ESCAPE;
+            append((byte) '%');
+        } else if (escape == ESCAPE_HALF_READ) {
+            escape = NO_ESCAPE;
+            int low = hexDigit(b);
+            if (low >= 0) {
+                append((byte) ((hexDigit(escapeHighChar) << 4) | low));
+                return true;
+            }
+            append((byte) '%');
+            append(escapeHighChar);
+        }
+
+        switch (b) {
+            case '&':
+                endField();
+                return true;
+            case '=':
+                if (name != null) {
+                    append(b);
+                } else if (componentLength == 0) {
+                    // Leading '=' signs are skipped, as the query parameters do
+                    return true;
+                } else {
+                    name = component();
+                }
+                break;
+            case '+':
+                append((byte) ' ');
+                break;
+            case '%':
+                escape = ESCAPE_STARTED;
+                break;
+            default:
+                append(b);
+        }
+        fieldStarted = true;
+        return true;
+    }
+
+    private void endField() {
+        if (escape != NO_ESCAPE) {
+            append((byte) '%');
+            if (escape == ESCAPE_HALF_READ) {
+                append(escapeHighChar);
+            }
+            escape = NO_ESCAPE;
+        }
+        if (!fieldStarted) {
+            return;
+        }
+        if (++fieldCount > maxFields) {
+            throw new IllegalArgumentException("Form body exceeds the maximum of " + maxFields + " fields");
+        }
+        if (name == null) {
+            fields.add(component(), null);
+        } else {
+            fields.add(name, component());
+        }
+        name = null;
+        fieldStarted = false;
+    }
+
+    private void append(final byte b) {
+        if (componentLength == component.length) {
+            byte[] grown = new byte[component.length * 2];
+            System.arraycopy(component, 0, grown, 0, componentLength);
+            component = grown;
+        }
+        component[componentLength++] = b;
+    }
+
+    private String component() {
+        String value = new String(component, 0, componentLength, StandardCharsets.UTF_8);
+        componentLength = 0;
+        return value;
+    }
+
+    private static int hexDigit(final byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        } else if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        } else if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable set of strings compared ignoring case, intended for static allow-lists such as header or parameter names
+ * checked on each request. It answers {@link #contains(String)} as {@link LinkedCaseInsensitiveSet} does: ASCII
+ * strings are compared ignoring the case of their letters, and strings containing non-ASCII characters by their form
+ * lower-cased with {@link Locale#ROOT}.
+ *
+ * <p>The elements are placed at construction in a table addressed by a multiplicative hash whose seed is searched so
+ * that no two elements collide: a lookup then reads a single slot and never allocates. When no such seed is found, which
+ * is usual beyond a few dozen elements or when two elements have the same hash, the table falls back to linear probing
+ * with a load factor of at most one half, lookups still not allocating. Only looking up a string containing non-ASCII
+ * characters allocates, to lower-case it.</p>
+ *
+ * <p>Elements are iterated in the order they have been given, the first one winning among elements equal ignoring
+ * case.</p>
+ *
+ * @author GraviteeSource Team
+ */
+public final class FrozenCaseInsensitiveSet extends AbstractSet<String> {
+
+    private static final FrozenCaseInsensitiveSet EMPTY = new FrozenCaseInsensitiveSet(new String[0]);
+
+    /**
+     * Number of seeds tried for each table size before doubling it.
+     */
+    private static final int SEED_ATTEMPTS = 64;
+
+    /**
+     * Number of times the table can be doubled, starting from the smallest power of two holding all the elements.
+     */
+    private static final int MAXIMUM_DOUBLINGS = 3;
+
+    private final String[] elements;
+    // Elements as compared, i.e. lower-cased when they contain non-ASCII characters
+    private final String[] table;
+    private final int[] hashes;
+    private final int seed;
+    private final int shift;
+    private final boolean probing;
+
+    private FrozenCaseInsensitiveSet(String[] elements) {
+        this.elements = elements;
+        String[] keys = new String[elements.length];
+        int[] elementHashes = new int[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            keys[i] = key(elements[i]);
+            elementHashes[i] = AsciiUtils.hashCodeIgnoreCase(keys[i]);
+        }
+
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(elements.length - 1, 1)));
+        for (int doubling = 0; doubling <= MAXIMUM_DOUBLINGS && bits < 31; doubling++, bits++) {
+            for (int attempt = 1; attempt <= SEED_ATTEMPTS; attempt++) {
+                int candidate = (0x9E3779B9 * attempt) | 1;
+                int[] slots = perfectSlots(elementHashes, candidate, 32 - bits);
+                if (slots != null) {
+                    this.table = new String[1 << bits];
+                    this.hashes = new int[table.length];
+                    for (int i = 0; i < elements.length; i++) {
+                        table[slots[i]] = keys[i];
+                        hashes[slots[i]] = elementHashes[i];
+                    }
+                    this.seed = candidate;
+                    this.shift = 32 - bits;
+                    this.probing = false;
+                    return;
+                }
+            }
+        }
+
+        bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(elements.length * 2 - 1));
+        this.table = new String[1 << bits];
+        this.hashes = new int[table.length];
+        this.seed = 0x9E3779B9;
+        this.shift = 32 - bits;
+        this.probing = true;
+        int mask = table.length - 1;
+        for (int i = 0; i < elements.length; i++) {
+            int slot = (elementHashes[i] * seed) >>> shift;
+            while (table[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = keys[i];
+            hashes[slot] = elementHashes[i];
+        }
+    }
+
+    /**
+     * Create a set of the given elements, ignoring those equal ignoring case to a previous one.
+     */
+    public static FrozenCaseInsensitiveSet of(String... elements) {
+        return of(Arrays.asList(elements));
+    }
+
+    /**
+     * Create a set of the given elements, ignoring those equal ignoring case to a previous one.
+     */
+    public static FrozenCaseInsensitiveSet of(Collection<String> elements) {
+        if (elements instanceof FrozenCaseInsensitiveSet) {
+            return (FrozenCaseInsensitiveSet) elements;
+        }
+        if (elements.isEmpty()) {
+            return EMPTY;
+        }
+        CaseInsensitiveKeyIndex index = new CaseInsensitiveKeyIndex(elements.size());
+        List<String> distinct = new ArrayList<>(elements.size());
+        for (String element : elements) {
+            if (index.putIfAbsent(key(element)) == null) {
+                distinct.add(element);
+            }
+        }
+        return new FrozenCaseInsensitiveSet(distinct.toArray(new String[0]));
+    }
+
+    /**
+     * Verify containment by ignoring case.
+     */
+    public boolean contains(String element) {
+        String key = key(element);
+        int hash = AsciiUtils.hashCodeIgnoreCase(key);
+        int slot = (hash * seed) >>> shift;
+        if (!probing) {
+            String candidate = table[slot];
+            return candidate != null && hashes[slot] == hash && AsciiUtils.equalsIgnoreCase(candidate, key);
+        }
+        int mask = table.length - 1;
+        for (String candidate = table[slot]; candidate != null; candidate = table[slot = (slot + 1) & mask]) {
+            if (hashes[slot] == hash && AsciiUtils.equalsIgnoreCase(candidate, key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof String && contains((String) o);
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return Arrays.asList(elements).iterator();
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    private static String key(String element) {
+        return AsciiUtils.isAscii(element) ? element : element.toLowerCase(Locale.ROOT);
+    }
+
+    private static int[] perfectSlots(int[] hashes, int seed, int shift) {
+        int[] slots = new int[hashes.length];
+        long[] used = new long[Math.max(1, (1 << (32 - shift)) >>> 6)];
+        for (int i = 0; i < hashes.length; i++) {
+            int slot = (hashes[i] * seed) >>> shift;
+            if ((used[slot >>> 6] & (1L << slot)) != 0) {
+                return null;
+            }
+            used[slot >>> 6] |= 1L << slot;
+            slots[i] = slot;
+        }
+        return slots;
+    }
+}
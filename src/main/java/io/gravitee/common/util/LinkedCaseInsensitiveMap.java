@@ -15,7 +15,11 @@
  */
 package io.gravitee.common.util;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.AbstractSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -24,11 +28,44 @@ import java.util.function.BiFunction;
 import java.util.function.Function;
 
 /**
+ * {@link LinkedHashMap} variant that looks keys up ignoring their case while keeping the original casing of the last
+ * key put. Keys are considered equal when their conversions by {@link #convertKey(String)} are.
+ * <p>As long as the keys are ASCII, lookups hash and compare them in place (see {@link AsciiUtils}), so that
+ * {@code get}, {@code containsKey}, {@code put} and {@code remove} don't allocate a lower-cased copy of the key, which
+ * is what protocol tokens such as HTTP header names need. The map falls back to indexing the converted keys once a
+ * non-ASCII key is stored, when {@link #convertKey(String)} is overridden, or when the locale lower-cases ASCII letters
+ * differently (Turkish and Azerbaijani dotless i).
+ *
  * @author David BRASSELY (brasseld at gmail.com)
  */
 public class LinkedCaseInsensitiveMap<V> extends LinkedHashMap<String, V> {
 
-    private final Map<String, String> caseInsensitiveKeys;
+    private static final ClassValue<Boolean> CONVERT_KEY_OVERRIDDEN = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != LinkedCaseInsensitiveMap.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("convertKey", String.class);
+                    return true;
+                } catch (NoSuchMethodException e) {
+                    // Not declared at this level
+                }
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Index of the keys hashed and compared ignoring the case of ASCII letters, {@code null} once the map falls back to
+     * {@link #convertedKeys}.
+     */
+    private transient CaseInsensitiveKeyIndex caseInsensitiveKeys;
+
+    /**
+     * Keys indexed by their conversion with {@link #convertKey(String)}, {@code null} as long as
+     * {@link #caseInsensitiveKeys} is used.
+     */
+    private transient Map<String, String> convertedKeys;
 
     private final Locale locale;
 
@@ -48,8 +85,8 @@ public class LinkedCaseInsensitiveMap<V> extends LinkedHashMap<String, V> {
      */
     public LinkedCaseInsensitiveMap(Locale locale) {
         super();
-        this.caseInsensitiveKeys = new HashMap<>();
         this.locale = (locale != null ? locale : Locale.getDefault());
+        initKeys(16);
     }
 
     /**
@@ -73,13 +110,13 @@ public class LinkedCaseInsensitiveMap<V> extends LinkedHashMap<String, V> {
      */
     public LinkedCaseInsensitiveMap(int initialCapacity, Locale locale) {
         super(initialCapacity);
-        this.caseInsensitiveKeys = new HashMap<>(initialCapacity);
         this.locale = (locale != null ? locale : Locale.getDefault());
+        initKeys(initialCapacity);
     }
 
     @Override
     public V put(String key, V value) {
-        String oldKey = this.caseInsensitiveKeys.put(convertKey(key), key);
+        String oldKey = indexKey(key);
         if (oldKey != null && !oldKey.equals(key)) {
             super.remove(oldKey);
         }
@@ -98,13 +135,13 @@ public class LinkedCaseInsensitiveMap<V> extends LinkedHashMap<String, V> {
 
     @Override
     public boolean containsKey(Object key) {
-        return (key instanceof String && this.caseInsensitiveKeys.containsKey(convertKey((String) key)));
+        return (key instanceof String && storedKey((String) key) != null);
     }
 
     @Override
     public V get(Object key) {
         if (key instanceof String) {
-            return super.get(this.caseInsensitiveKeys.get(convertKey((String) key)));
+            return super.get(storedKey((String) key));
         } else {
             return null;
         }
@@ -113,7 +150,7 @@ public class LinkedCaseInsensitiveMap<V> extends LinkedHashMap<String, V> {
     @Override
     public V remove(Object key) {
         if (key instanceof String) {
-            return super.remove(this.caseInsensitiveKeys.remove(convertKey((String) key)));
+            return super.remove(unindexKey((String) key));
         } else {
             return null;
         }
@@ -121,14 +158,18 @@ public class LinkedCaseInsensitiveMap<V> extends LinkedHashMap<String, V> {
 
     @Override
     public void clear() {
-        this.caseInsensitiveKeys.clear();
+        if (this.convertedKeys != null) {
+            this.convertedKeys.clear();
+        } else {
+            this.caseInsensitiveKeys.clear();
+        }
         super.clear();
     }
 
     @Override
     public V getOrDefault(Object key, V defaultValue) {
         if (key instanceof String) {
-            return super.getOrDefault(this.caseInsensitiveKeys.get(convertKey((String) key)), defaultValue);
+            return super.getOrDefault(storedKey((String) key), defaultValue);
         } else {
             return null;
         }
@@ -136,8 +177,7 @@ public class LinkedCaseInsensitiveMap<V> extends LinkedHashMap<String, V> {
 
     @Override
     public V putIfAbsent(String key, V value) {
-        if (!this.caseInsensitiveKeys.containsKey(convertKey(key))) {
-            this.caseInsensitiveKeys.put(convertKey(key), key);
+        if (indexKeyIfAbsent(key)) {
             return super.put(key, value);
         }
         return get(key);
@@ -145,28 +185,35 @@ public class LinkedCaseInsensitiveMap<V> extends LinkedHashMap<String, V> {
 
     @Override
     public V computeIfAbsent(String key, Function<? super String, ? extends V> mappingFunction) {
-        if (!this.caseInsensitiveKeys.containsKey(convertKey(key))) {
-            this.caseInsensitiveKeys.put(convertKey(key), key);
-            return super.computeIfAbsent(key, mappingFunction);
+        if (indexKeyIfAbsent(key)) {
+            V value = super.computeIfAbsent(key, mappingFunction);
+            if (value == null) {
+                unindexKey(key);
+            }
+            return value;
         }
         return get(key);
     }
 
     @Override
     public V computeIfPresent(String key, BiFunction<? super String, ? super V, ? extends V> remappingFunction) {
-        String oldKey = this.caseInsensitiveKeys.put(convertKey(key), key);
+        String oldKey = reindexKey(key);
         if (oldKey != null) {
             if (!oldKey.equals(key)) {
-                super.remove(oldKey);
+                super.put(key, super.remove(oldKey));
+            }
+            V value = super.compute(key, remappingFunction);
+            if (value == null) {
+                unindexKey(key);
             }
-            return super.compute(key, remappingFunction);
+            return value;
         }
         return null;
     }
 
     @Override
     public V replace(String key, V value) {
-        String oldKey = this.caseInsensitiveKeys.put(convertKey(key), key);
+        String oldKey = reindexKey(key);
         if (oldKey != null) {
             V oldValue = super.get(oldKey);
             if (oldKey.equals(key)) {
@@ -180,8 +227,60 @@ public class LinkedCaseInsensitiveMap<V> extends LinkedHashMap<String, V> {
         return null;
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public LinkedCaseInsensitiveMap<V> clone() {
+        LinkedCaseInsensitiveMap<V> copy = (LinkedCaseInsensitiveMap<V>) super.clone();
+        copy.rebuildKeys();
+        return copy;
+    }
+
+    /**
+     * Return a view of the keys converted with {@link #convertKey(String)}, reflecting the changes of the map. Removing
+     * a converted key through its iterator removes the matching entry from the map.
+     * <p>Prefer {@link #containsKey(Object)}, which doesn't need to convert the keys.
+     */
     public Set<String> insensitiveKeySet() {
-        return this.caseInsensitiveKeys.keySet();
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                Iterator<String> keys = keySet().iterator();
+                return new Iterator<>() {
+                    private String current;
+
+                    @Override
+                    public boolean hasNext() {
+                        return keys.hasNext();
+                    }
+
+                    @Override
+                    public String next() {
+                        current = keys.next();
+                        return convertKey(current);
+                    }
+
+                    @Override
+                    public void remove() {
+                        keys.remove();
+                        unindexKey(current);
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof String)) {
+                    return false;
+                }
+                String key = storedKey((String) o);
+                return key != null && convertKey(key).equals(o);
+            }
+
+            @Override
+            public int size() {
+                return LinkedCaseInsensitiveMap.this.size();
+            }
+        };
     }
 
     public Locale getLocale() {
@@ -189,7 +288,7 @@ public class LinkedCaseInsensitiveMap<V> extends LinkedHashMap<String, V> {
     }
 
     /**
-     * Convert the given key to a case-insensitive key.
+     * Convert the given key to a case-insensitive key, as exposed by {@link #insensitiveKeySet()}.
      * <p>The default implementation converts the key
      * to lower-case according to this Map's Locale.
      * @param key the user-specified key
@@ -199,4 +298,115 @@ public class LinkedCaseInsensitiveMap<V> extends LinkedHashMap<String, V> {
     protected String convertKey(String key) {
         return key.toLowerCase(this.locale);
     }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        rebuildKeys();
+    }
+
+    private void initKeys(int expectedSize) {
+        String language = this.locale.getLanguage();
+        if (CONVERT_KEY_OVERRIDDEN.get(getClass()) || "tr".equals(language) || "az".equals(language)) {
+            this.caseInsensitiveKeys = null;
+            this.convertedKeys = new HashMap<>(expectedSize);
+        } else {
+            this.caseInsensitiveKeys = new CaseInsensitiveKeyIndex(expectedSize);
+            this.convertedKeys = null;
+        }
+    }
+
+    private void rebuildKeys() {
+        initKeys(size());
+        for (String key : keySet()) {
+            indexKey(key);
+        }
+    }
+
+    private void useConvertedKeys() {
+        Map<String, String> keys = new HashMap<>(Math.max(size() * 2, 16));
+        for (String key : keySet()) {
+            keys.put(convertKey(key), key);
+        }
+        this.convertedKeys = keys;
+        this.caseInsensitiveKeys = null;
+    }
+
+    /**
+     * @return the stored key equal to the given one ignoring case, {@code null} if there is none
+     */
+    private String storedKey(String key) {
+        if (this.convertedKeys != null) {
+            return this.convertedKeys.get(convertKey(key));
+        }
+        if (AsciiUtils.isAscii(key)) {
+            return this.caseInsensitiveKeys.get(key);
+        }
+        // Only ASCII keys are stored, which a non-ASCII key can only match through its conversion (e.g. Kelvin sign)
+        String converted = convertKey(key);
+        return AsciiUtils.isAscii(converted) ? this.caseInsensitiveKeys.get(converted) : null;
+    }
+
+    /**
+     * Store the given key, replacing the key equal to it ignoring case if any.
+     * @return the replaced key or {@code null} if there was none
+     */
+    private String indexKey(String key) {
+        if (this.convertedKeys == null && !AsciiUtils.isAscii(key)) {
+            useConvertedKeys();
+        }
+        if (this.convertedKeys != null) {
+            return this.convertedKeys.put(convertKey(key), key);
+        }
+        return this.caseInsensitiveKeys.put(key);
+    }
+
+    /**
+     * Store the given key only if no key equal to it ignoring case is stored.
+     * @return whether the key has been stored
+     */
+    private boolean indexKeyIfAbsent(String key) {
+        if (this.convertedKeys == null && !AsciiUtils.isAscii(key)) {
+            if (storedKey(key) != null) {
+                return false;
+            }
+            useConvertedKeys();
+        }
+        if (this.convertedKeys != null) {
+            return this.convertedKeys.putIfAbsent(convertKey(key), key) == null;
+        }
+        return this.caseInsensitiveKeys.putIfAbsent(key) == null;
+    }
+
+    /**
+     * Replace the stored key equal to the given one ignoring case, if any.
+     * @return the replaced key or {@code null} if there was none
+     */
+    private String reindexKey(String key) {
+        if (this.convertedKeys == null && !AsciiUtils.isAscii(key)) {
+            if (storedKey(key) == null) {
+                return null;
+            }
+            useConvertedKeys();
+        }
+        if (this.convertedKeys != null) {
+            String convertedKey = convertKey(key);
+            return this.convertedKeys.containsKey(convertedKey) ? this.convertedKeys.put(convertedKey, key) : null;
+        }
+        return this.caseInsensitiveKeys.replace(key);
+    }
+
+    /**
+     * Remove the stored key equal to the given one ignoring case, if any.
+     * @return the removed key or {@code null} if there was none
+     */
+    private String unindexKey(String key) {
+        if (this.convertedKeys != null) {
+            return this.convertedKeys.remove(convertKey(key));
+        }
+        if (AsciiUtils.isAscii(key)) {
+            return this.caseInsensitiveKeys.remove(key);
+        }
+        String storedKey = storedKey(key);
+        return storedKey != null ? this.caseInsensitiveKeys.remove(storedKey) : null;
+    }
 }
@@ -15,25 +15,44 @@
  */
 package io.gravitee.common.util;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractSet;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.Locale;
 
 /**
- * Set implementation that is case insensitive.
+ * Set implementation that is case insensitive. Elements are stored lower-cased and looked up through an index hashing
+ * and comparing ASCII letters ignoring their case, so that checking an ASCII element does not allocate. Elements
+ * containing non-ASCII characters are still looked up by their lower-cased form. Lower-casing uses {@link Locale#ROOT},
+ * whatever the default locale, so that it agrees with the ASCII index: with a Turkish locale, {@code "ID"} would
+ * otherwise be stored with a dotless i, which is not ASCII.
+ *
+ * The elements are kept in a {@link LinkedHashSet} owned by this set rather than inherited from it, so that no method
+ * of {@link LinkedHashSet}, such as those added by sequenced collections, can change them without updating the index.
+ * The index is kept up to date by every change, and rebuilt as soon as the set is cloned or deserialized, so that
+ * lookups only read it: once built, a set can be shared read-only across threads as a {@link LinkedHashSet} can.
  *
  * @author David BRASSELY (david.brassely at graviteesource.com)
  * @author GraviteeSource Team
  */
-public class LinkedCaseInsensitiveSet extends LinkedHashSet<String> {
+public class LinkedCaseInsensitiveSet extends AbstractSet<String> implements Cloneable, Serializable {
+
+    private static final long serialVersionUID = 2L;
 
-    private static final long serialVersionUID = 1L;
+    private LinkedHashSet<String> elements;
+    private transient CaseInsensitiveKeyIndex index;
 
     /**
      * Constructs a new, empty linked hash set with the default initial
      * capacity (16) and load factor (0.75).
      */
     public LinkedCaseInsensitiveSet() {
-        super();
+        this.elements = new LinkedHashSet<>();
+        this.index = new CaseInsensitiveKeyIndex(16);
     }
 
     /**
@@ -42,23 +61,120 @@ public class LinkedCaseInsensitiveSet extends LinkedHashSet<String> {
      * @param source The source collection to use for initialization.
      */
     public LinkedCaseInsensitiveSet(Collection<? extends String> source) {
-        super(source);
+        this.elements = new LinkedHashSet<>(Math.max((int) (source.size() / .75f) + 1, 16));
+        this.index = new CaseInsensitiveKeyIndex(Math.max(source.size(), 16));
+        addAll(source);
     }
 
     @Override
     public boolean add(String element) {
-        return super.add(element.toLowerCase());
+        String lowerCased = element.toLowerCase(Locale.ROOT);
+        if (elements.add(lowerCased)) {
+            index.put(lowerCased);
+            return true;
+        }
+        return false;
     }
 
     /**
      * Verify containment by ignoring case.
      */
     public boolean contains(String element) {
-        return super.contains(element.toLowerCase());
+        if (AsciiUtils.isAscii(element)) {
+            return index.get(element) != null;
+        }
+        return elements.contains(element.toLowerCase(Locale.ROOT));
     }
 
     @Override
     public boolean contains(Object o) {
         return contains(o.toString());
     }
+
+    /**
+     * Remove the element equal to the given one ignoring case.
+     */
+    @Override
+    public boolean remove(Object o) {
+        String element = o.toString();
+        String stored = AsciiUtils.isAscii(element) ? index.get(element) : element.toLowerCase(Locale.ROOT);
+        if (stored != null && elements.remove(stored)) {
+            index.remove(stored);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return elements.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        elements.clear();
+        index.clear();
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        Iterator<String> iterator = elements.iterator();
+        return new Iterator<>() {
+            private String current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public String next() {
+                current = iterator.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                index.remove(current);
+            }
+        };
+    }
+
+    @Override
+    public Object clone() {
+        try {
+            LinkedCaseInsensitiveSet clone = (LinkedCaseInsensitiveSet) super.clone();
+            clone.elements = new LinkedHashSet<>(elements);
+            clone.index = clone.buildIndex();
+            return clone;
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    /**
+     * Freeze the content of this set into an immutable {@link FrozenCaseInsensitiveSet}.
+     */
+    public FrozenCaseInsensitiveSet freeze() {
+        return FrozenCaseInsensitiveSet.of(this);
+    }
+
+    private CaseInsensitiveKeyIndex buildIndex() {
+        CaseInsensitiveKeyIndex built = new CaseInsensitiveKeyIndex(Math.max(elements.size(), 16));
+        for (String element : elements) {
+            built.put(element);
+        }
+        return built;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        index = buildIndex();
+    }
 }
@@ -0,0 +1,366 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Matches request paths against a set of registered path templates, such as API context paths.
+ *
+ * Templates are made of segments separated by {@code /}, each one being either:
+ * <ul>
+ *     <li>a literal, matched case-sensitively: {@code /apis}</li>
+ *     <li>a named parameter matching any non-empty segment: {@code /apis/:apiId}</li>
+ *     <li>a wildcard matching any non-empty segment: {@code /apis/*}{@code /plans}</li>
+ *     <li>a trailing {@code **} matching the rest of the path, possibly empty: {@code /echo/**} matches {@code /echo},
+ *     {@code /echo/} and {@code /echo/a/b}</li>
+ * </ul>
+ * When several templates match a path, literal segments take precedence over parameters, which take precedence over
+ * wildcards, which take precedence over a trailing {@code **}.
+ *
+ * Templates are compiled into a trie of segments, literal children being looked up in place in the path without
+ * creating any string, so a lookup is linear in the length of the path whatever the number of templates, unless
+ * templates overlap and force to backtrack. Lookups are lock-free: registering or unregistering templates rebuilds the
+ * trie, which is then published atomically, so writes are linear in the number of templates and meant for deployment
+ * time.
+ *
+ * @author GraviteeSource Team
+ */
+public final class PathTemplateMatcher<T> {
+
+    private static final String WILDCARD = "*";
+    private static final String CATCH_ALL = "**";
+    private static final char PARAMETER_PREFIX = ':';
+
+    private final Map<String, T> templates = new LinkedHashMap<>();
+    private volatile Node<T> root = new Node<>();
+
+    /**
+     * Register a template, replacing the value of an identical one.
+     * @throws IllegalArgumentException if the template is invalid or conflicts with a registered one
+     */
+    public synchronized void register(String template, T value) {
+        Map<String, T> updated = new LinkedHashMap<>(templates);
+        updated.put(template, value);
+        publish(updated);
+    }
+
+    /**
+     * Register several templates at once, rebuilding the trie only once.
+     * @throws IllegalArgumentException if a template is invalid or conflicts with another one
+     */
+    public synchronized void registerAll(Map<String, T> templates) {
+        Map<String, T> updated = new LinkedHashMap<>(this.templates);
+        updated.putAll(templates);
+        publish(updated);
+    }
+
+    /**
+     * @return whether the template was registered
+     */
+    public synchronized boolean unregister(String template) {
+        if (!templates.containsKey(template)) {
+            return false;
+        }
+        Map<String, T> updated = new LinkedHashMap<>(templates);
+        updated.remove(template);
+        publish(updated);
+        return true;
+    }
+
+    public synchronized int size() {
+        return templates.size();
+    }
+
+    public synchronized void clear() {
+        publish(new LinkedHashMap<>());
+    }
+
+    /**
+     * Find the template matching the given path. The query string and fragment, if any, are ignored.
+     * @return the match, or {@code null} if no template matches
+     */
+    public Match<T> match(String path) {
+        if (path == null || path.isEmpty() || path.charAt(0) != '/') {
+            return null;
+        }
+        int end = path.length();
+        for (int i = 1; i < end; i++) {
+            char c = path.charAt(i);
+            if (c == '?' || c == '#') {
+                end = i;
+                break;
+            }
+        }
+        Node<T> current = this.root;
+        int[] captures = current.maxParameters == 0 ? null : new int[current.maxParameters * 2];
+        return find(current, path, 1, end, captures, 0);
+    }
+
+    private void publish(final Map<String, T> updated) {
+        Node<T> compiled = compile(updated);
+        templates.clear();
+        templates.putAll(updated);
+        root = compiled;
+    }
+
+    private static <T> Match<T> find(Node<T> node, String path, int start, int end, int[] captures, int captured) {
+        if (start > end) {
+            if (node.route != null) {
+                return new Match<>(node.route, path, captures, end, end);
+            }
+            return node.catchAll == null ? null : new Match<>(node.catchAll, path, captures, end, end);
+        }
+
+        int segmentEnd = start;
+        int hash = 0;
+        while (segmentEnd < end && path.charAt(segmentEnd) != '/') {
+            hash = 31 * hash + path.charAt(segmentEnd);
+            segmentEnd++;
+        }
+
+        Match<T> match;
+        if (node.literals != null) {
+            Node<T> literal = node.literals.get(path, start, segmentEnd, hash);
+            if (literal != null && (match = find(literal, path, segmentEnd + 1, end, captures, captured)) != null) {
+                return match;
+            }
+        }
+        if (segmentEnd > start) {
+            if (node.parameter != null) {
+                captures[captured * 2] = start;
+                captures[captured * 2 + 1] = segmentEnd;
+                if ((match = find(node.parameter, path, segmentEnd + 1, end, captures, captured + 1)) != null) {
+                    return match;
+                }
+            }
+            if (node.wildcard != null) {
+                if ((match = find(node.wildcard, path, segmentEnd + 1, end, captures, captured)) != null) {
+                    return match;
+                }
+            }
+        }
+        return node.catchAll == null ? null : new Match<>(node.catchAll, path, captures, start - 1, end);
+    }
+
+    private static <T> Node<T> compile(final Map<String, T> templates) {
+        Node<T> root = new Node<>();
+        templates.forEach((template, value) -> add(root, template, value));
+        root.compile();
+        return root;
+    }
+
+    private static <T> void add(final Node<T> root, final String template, final T value) {
+        if (template == null || template.isEmpty() || template.charAt(0) != '/') {
+            throw new IllegalArgumentException("Path template must start with '/': " + template);
+        }
+        String[] segments = template.substring(1).split("/", -1);
+        String[] parameterNames = new String[segments.length];
+        int parameterCount = 0;
+        Node<T> node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (CATCH_ALL.equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' must be the last segment of path template: " + template);
+                }
+                node.catchAll = route(node.catchAll, template, value, parameterNames, parameterCount);
+                return;
+            } else if (WILDCARD.equals(segment)) {
+                node = node.wildcard = node.wildcard == null ? new Node<>() : node.wildcard;
+            } else if (segment.length() > 1 && segment.charAt(0) == PARAMETER_PREFIX) {
+                String name = segment.substring(1);
+                for (int p = 0; p < parameterCount; p++) {
+                    if (parameterNames[p].equals(name)) {
+                        throw new IllegalArgumentException(
+                            "Duplicate parameter " + name + " in path template: " + template
+                        );
+                    }
+                }
+                parameterNames[parameterCount++] = name;
+                node = node.parameter = node.parameter == null ? new Node<>() : node.parameter;
+            } else {
+                node = node.literalMap.computeIfAbsent(segment, key -> new Node<>());
+            }
+        }
+        node.route = route(node.route, template, value, parameterNames, parameterCount);
+    }
+
+    private static <T> Route<T> route(
+        Route<T> existing,
+        String template,
+        T value,
+        String[] parameterNames,
+        int parameterCount
+    ) {
+        if (existing != null) {
+            throw new IllegalArgumentException("Path template " + template + " conflicts with " + existing.template);
+        }
+        String[] names = new String[parameterCount];
+        System.arraycopy(parameterNames, 0, names, 0, parameterCount);
+        return new Route<>(template, value, names);
+    }
+
+    /**
+     * Result of a successful match.
+     */
+    public static final class Match<T> {
+
+        private final Route<T> route;
+        private final String path;
+        private final int[] captures;
+        private final int remainderStart;
+        private final int remainderEnd;
+        private Map<String, String> parameters;
+
+        private Match(Route<T> route, String path, int[] captures, int remainderStart, int remainderEnd) {
+            this.route = route;
+            this.path = path;
+            this.captures = captures;
+            this.remainderStart = remainderStart;
+            this.remainderEnd = remainderEnd;
+        }
+
+        /**
+         * @return the matching template
+         */
+        public String template() {
+            return route.template;
+        }
+
+        /**
+         * @return the value registered with the matching template
+         */
+        public T value() {
+            return route.value;
+        }
+
+        /**
+         * @return the values of the named parameters of the template
+         */
+        public Map<String, String> parameters() {
+            if (parameters == null) {
+                String[] names = route.parameterNames;
+                if (names.length == 0) {
+                    parameters = Collections.emptyMap();
+                } else {
+                    Map<String, String> values = new HashMap<>(names.length * 2);
+                    for (int i = 0; i < names.length; i++) {
+                        values.put(names[i], path.substring(captures[i * 2], captures[i * 2 + 1]));
+                    }
+                    parameters = Collections.unmodifiableMap(values);
+                }
+            }
+            return parameters;
+        }
+
+        /**
+         * @return the value of the given parameter, or {@code null}
+         */
+        public String parameter(String name) {
+            return parameters().get(name);
+        }
+
+        /**
+         * @return the part of the path matched by a trailing {@code **}, starting with {@code /} unless empty
+         */
+        public String remainingPath() {
+            return path.substring(remainderStart, remainderEnd);
+        }
+    }
+
+    private record Route<T>(String template, T value, String[] parameterNames) {}
+
+    private static final class Node<T> {
+
+        private Map<String, Node<T>> literalMap = new HashMap<>();
+        private Literals<T> literals;
+        private Node<T> parameter;
+        private Node<T> wildcard;
+        private Route<T> route;
+        private Route<T> catchAll;
+        private int maxParameters;
+
+        /**
+         * Freeze the subtree and compute the maximum number of parameters captured below this node.
+         */
+        private int compile() {
+            int max = 0;
+            if (!literalMap.isEmpty()) {
+                literals = new Literals<>(literalMap);
+                for (Node<T> child : literalMap.values()) {
+                    max = Math.max(max, child.compile());
+                }
+            }
+            literalMap = null;
+            if (parameter != null) {
+                max = Math.max(max, parameter.compile() + 1);
+            }
+            if (wildcard != null) {
+                max = Math.max(max, wildcard.compile());
+            }
+            maxParameters = max;
+            return max;
+        }
+    }
+
+    /**
+     * Open addressing table of the literal children of a node, looked up by a region of the path.
+     */
+    private static final class Literals<T> {
+
+        private final String[] keys;
+        private final Node<T>[] nodes;
+        private final int mask;
+
+        @SuppressWarnings("unchecked")
+        private Literals(final Map<String, Node<T>> children) {
+            int capacity = Integer.highestOneBit(Math.max(children.size() * 2 - 1, 1)) << 1;
+            keys = new String[capacity];
+            nodes = new Node[capacity];
+            mask = capacity - 1;
+            children.forEach((key, node) -> {
+                int i = spread(key.hashCode()) & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                nodes[i] = node;
+            });
+        }
+
+        /**
+         * @param hash the {@link String#hashCode()} of the region
+         */
+        private Node<T> get(final String path, final int start, final int end, final int hash) {
+            int length = end - start;
+            for (int i = spread(hash) & mask; keys[i] != null; i = (i + 1) & mask) {
+                String key = keys[i];
+                if (key.hashCode() == hash && key.length() == length && path.regionMatches(start, key, 0, length)) {
+                    return nodes[i];
+                }
+            }
+            return null;
+        }
+
+        private static int spread(final int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
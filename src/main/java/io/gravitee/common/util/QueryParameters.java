@@ -0,0 +1,350 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Read-only view over the query parameters of a URI.
+ *
+ * The query is scanned once, on first access, recording the offsets of each parameter name and value: no string is
+ * created until a name or value is actually read, so reading a single parameter does not pay for materializing all
+ * the others. When decoding is enabled, {@code +} and percent-encoded UTF-8 sequences are decoded on access in a single
+ * pass through a buffer reused by the view; invalid escapes are kept as is and malformed UTF-8 sequences replaced by
+ * {@code U+FFFD}.
+ *
+ * Parameters are split exactly as {@link URIUtils#parameters(String, boolean)} does. Views are not thread-safe.
+ *
+ * @author GraviteeSource Team
+ */
+public final class QueryParameters {
+
+    private static final int NAME_START = 0;
+    private static final int VALUE_START = 1;
+    private static final int END = 2;
+    private static final int FLAGS = 3;
+    private static final int STRIDE = 4;
+
+    private static final int ENCODED_NAME = 1;
+    private static final int ENCODED_VALUE = 2;
+
+    private final String uri;
+    private final boolean semicolonIsNormalChar;
+    private final boolean decode;
+
+    private int[] offsets;
+    private int size = -1;
+    private char[] buffer;
+
+    private QueryParameters(final String uri, final boolean semicolonIsNormalChar, final boolean decode) {
+        this.uri = uri;
+        this.semicolonIsNormalChar = semicolonIsNormalChar;
+        this.decode = decode;
+    }
+
+    /**
+     * Create a view over the query parameters of the given URI, semicolons being parameter separators and nothing
+     * being decoded.
+     */
+    public static QueryParameters of(String uri) {
+        return of(uri, false, false);
+    }
+
+    /**
+     * Create a view over the query parameters of the given URI.
+     * @param uri the URI, only the part between the first {@code ?} and the fragment is considered
+     * @param semicolonIsNormalChar when true, {@code ;} is not considered as a parameter separator
+     * @param decode when true, names and values are percent-decoded and {@code +} is decoded as a space
+     */
+    public static QueryParameters of(String uri, boolean semicolonIsNormalChar, boolean decode) {
+        if (uri == null) {
+            throw new IllegalArgumentException("URI must not be null");
+        }
+        return new QueryParameters(uri, semicolonIsNormalChar, decode);
+    }
+
+    /**
+     * @return the number of parameters, including repeated names
+     */
+    public int size() {
+        index();
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return the name of the parameter at the given position
+     */
+    public String name(int index) {
+        int offset = offset(index);
+        int nameEnd = offsets[offset + VALUE_START] < 0 ? offsets[offset + END] : offsets[offset + VALUE_START] - 1;
+        return component(offsets[offset + NAME_START], nameEnd, (offsets[offset + FLAGS] & ENCODED_NAME) != 0);
+    }
+
+    /**
+     * @return the value of the parameter at the given position, {@code null} if it has no {@code =}
+     */
+    public String value(int index) {
+        int offset = offset(index);
+        int valueStart = offsets[offset + VALUE_START];
+        if (valueStart < 0) {
+            return null;
+        }
+        return component(valueStart, offsets[offset + END], (offsets[offset + FLAGS] & ENCODED_VALUE) != 0);
+    }
+
+    public boolean contains(String name) {
+        return indexOf(name, 0) >= 0;
+    }
+
+    /**
+     * @return the first value of the given parameter, {@code null} if the parameter is absent or has no value
+     */
+    public String getFirst(String name) {
+        int index = indexOf(name, 0);
+        return index < 0 ? null : value(index);
+    }
+
+    /**
+     * @return the values of the given parameter, in order, or an empty list if the parameter is absent
+     */
+    public List<String> getAll(String name) {
+        int index = indexOf(name, 0);
+        if (index < 0) {
+            return Collections.emptyList();
+        }
+        List<String> values = new ArrayList<>(2);
+        do {
+            values.add(value(index));
+            index = indexOf(name, index + 1);
+        } while (index >= 0);
+        return values;
+    }
+
+    /**
+     * @return the distinct parameter names, in order of first appearance
+     */
+    public Set<String> names() {
+        Set<String> names = new LinkedHashSet<>();
+        for (int i = 0; i < size(); i++) {
+            names.add(name(i));
+        }
+        return names;
+    }
+
+    /**
+     * Materialize all the parameters.
+     */
+    public MultiValueMap<String, String> toMultiValueMap() {
+        int count = size();
+        MultiValueMap<String, String> parameters = new CompactMultiValueMap<>(count == 0 ? 0 : 16);
+        for (int i = 0; i < count; i++) {
+            parameters.add(name(i), value(i));
+        }
+        return parameters;
+    }
+
+    private int indexOf(final String name, final int from) {
+        int count = size();
+        for (int i = from; i < count; i++) {
+            int offset = i * STRIDE;
+            int start = offsets[offset + NAME_START];
+            int end = offsets[offset + VALUE_START] < 0 ? offsets[offset + END] : offsets[offset + VALUE_START] - 1;
+            if (decode && (offsets[offset + FLAGS] & ENCODED_NAME) != 0) {
+                if (bufferEquals(decode(start, end), name)) {
+                    return i;
+                }
+            } else if (end - start == name.length() && uri.regionMatches(start, name, 0, end - start)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean bufferEquals(final int length, final String name) {
+        if (length != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int offset(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return index * STRIDE;
+    }
+
+    private String component(final int start, final int end, final boolean encoded) {
+        if (decode && encoded) {
+            int length = decode(start, end);
+            return new String(buffer, 0, length);
+        }
+        return uri.substring(start, end);
+    }
+
+    private void index() {
+        if (size >= 0) {
+            return;
+        }
+        size = 0;
+        int questionMarkIndex = uri.indexOf('?');
+        if (questionMarkIndex < 0 || uri.length() == (questionMarkIndex + 1)) {
+            return;
+        }
+        offsets = new int[4 * STRIDE];
+        int end = uri.length();
+        int i;
+        int paramNameStart = questionMarkIndex + 1;
+        int paramValueStart = -1;
+        int flags = 0;
+        loop: for (i = questionMarkIndex + 1; i < end; i++) {
+            switch (uri.charAt(i)) {
+                case '=':
+                    if (paramNameStart == i) {
+                        paramNameStart = i + 1;
+                    } else if (paramValueStart < paramNameStart) {
+                        paramValueStart = i + 1;
+                    }
+                    break;
+                case ';':
+                    if (semicolonIsNormalChar) {
+                        continue;
+                    }
+                case '&':
+                    add(paramNameStart, paramValueStart, i, flags);
+                    paramNameStart = i + 1;
+                    flags = 0;
+                    break;
+                case '#':
+                    break loop;
+                case '%':
+                case '+':
+                    flags |= paramValueStart < paramNameStart ? ENCODED_NAME : ENCODED_VALUE;
+                    break;
+                default:
+                // continue
+            }
+        }
+        if (paramNameStart < i) {
+            add(paramNameStart, paramValueStart, i, flags);
+        }
+    }
+
+    private void add(final int paramNameStart, final int paramValueStart, final int end, final int flags) {
+        int offset = size * STRIDE;
+        if (offset == offsets.length) {
+            int[] grown = new int[offsets.length * 2];
+            System.arraycopy(offsets, 0, grown, 0, offsets.length);
+            offsets = grown;
+        }
+        offsets[offset + NAME_START] = paramNameStart;
+        offsets[offset + VALUE_START] = paramValueStart < paramNameStart ? -1 : paramValueStart;
+        offsets[offset + END] = end;
+        offsets[offset + FLAGS] = flags;
+        size++;
+    }
+
+    /**
+     * Decode the given part of the URI into the buffer.
+     * @return the number of decoded chars
+     */
+    private int decode(final int from, final int to) {
+        if (buffer == null || buffer.length < to - from) {
+            buffer = new char[Math.max(to - from, 32)];
+        }
+        char[] decoded = buffer;
+        int length = 0;
+        int i = from;
+        while (i < to) {
+            char c = uri.charAt(i);
+            int b;
+            if (c == '+') {
+                decoded[length++] = ' ';
+                i++;
+            } else if (c != '%' || (b = hexByte(i, to)) < 0) {
+                decoded[length++] = c;
+                i++;
+            } else if (b < 0x80) {
+                decoded[length++] = (char) b;
+                i += 3;
+            } else {
+                int continuations = b >= 0xF8 ? -1 : b >= 0xF0 ? 3 : b >= 0xE0 ? 2 : b >= 0xC0 ? 1 : -1;
+                int codePoint = continuations < 0 ? -1 : b & (0x3F >> continuations);
+                int next = i + 3;
+                for (int k = 0; k < continuations && codePoint >= 0; k++, next += 3) {
+                    int continuation = hexByte(next, to);
+                    codePoint = (continuation & 0xC0) == 0x80 ? (codePoint << 6) | (continuation & 0x3F) : -1;
+                }
+                if (!isValid(codePoint, continuations)) {
+                    decoded[length++] = '\uFFFD';
+                    i += 3;
+                } else {
+                    length += Character.toChars(codePoint, decoded, length);
+                    i = next;
+                }
+            }
+        }
+        return length;
+    }
+
+    private static boolean isValid(final int codePoint, final int continuations) {
+        if (codePoint < 0) {
+            return false;
+        }
+        int minimum = continuations == 1 ? 0x80 : continuations == 2 ? 0x800 : 0x10000;
+        return (
+            codePoint >= minimum &&
+            codePoint <= Character.MAX_CODE_POINT &&
+            (codePoint < Character.MIN_SURROGATE || codePoint > Character.MAX_SURROGATE)
+        );
+    }
+
+    /**
+     * @return the byte encoded by the {@code %XX} escape at the given position, or {@code -1} if it is not one
+     */
+    private int hexByte(final int index, final int to) {
+        if (index + 2 >= to || uri.charAt(index) != '%') {
+            return -1;
+        }
+        int high = hexDigit(uri.charAt(index + 1));
+        int low = hexDigit(uri.charAt(index + 2));
+        return high < 0 || low < 0 ? -1 : (high << 4) | low;
+    }
+
+    private static int hexDigit(final char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of parsed query parameters, keyed by the raw query string, for traffic where the same queries (pagination,
+ * API keys, ...) come over and over.
+ *
+ * Parameters are split as {@link URIUtils#parameters(String, boolean)} does, but the returned maps are shared between
+ * callers and therefore unmodifiable. The cache is bounded both by its number of entries and by the total length of
+ * the cached query strings; queries longer than this limit are never cached. Instances are thread-safe.
+ *
+ * @author GraviteeSource Team
+ */
+public final class QueryParametersCache {
+
+    private static final MultiValueMap<String, String> EMPTY = new UnmodifiableParameters(QueryParameters.of(""));
+
+    private final BoundedCache<String, MultiValueMap<String, String>> ampersandSeparated;
+    private final BoundedCache<String, MultiValueMap<String, String>> semicolonSeparated;
+
+    /**
+     * @param maximumSize the maximum number of cached queries
+     * @param maximumLength the maximum total length of the cached queries
+     */
+    public QueryParametersCache(int maximumSize, long maximumLength) {
+        this.ampersandSeparated = new BoundedCache<>(maximumSize, maximumLength, (query, parameters) -> query.length());
+        this.semicolonSeparated = new BoundedCache<>(maximumSize, maximumLength, (query, parameters) -> query.length());
+    }
+
+    /**
+     * @see URIUtils#parameters(String)
+     */
+    public MultiValueMap<String, String> parameters(String uri) {
+        return parameters(uri, false);
+    }
+
+    /**
+     * @see URIUtils#parameters(String, boolean)
+     */
+    public MultiValueMap<String, String> parameters(String uri, boolean semicolonIsNormalChar) {
+        int questionMarkIndex = uri.indexOf('?');
+        if (questionMarkIndex < 0 || uri.length() == (questionMarkIndex + 1)) {
+            return EMPTY;
+        }
+        int fragmentIndex = uri.indexOf('#', questionMarkIndex + 1);
+        String query = uri.substring(questionMarkIndex, fragmentIndex < 0 ? uri.length() : fragmentIndex);
+        // The same query splits differently depending on semicolons, hence a cache for each flavour
+        BoundedCache<String, MultiValueMap<String, String>> cache = semicolonIsNormalChar
+            ? ampersandSeparated
+            : semicolonSeparated;
+        return cache.computeIfAbsent(
+            query,
+            key -> new UnmodifiableParameters(QueryParameters.of(key, semicolonIsNormalChar, false))
+        );
+    }
+
+    public int size() {
+        return ampersandSeparated.size() + semicolonSeparated.size();
+    }
+
+    public long hitCount() {
+        return ampersandSeparated.hitCount() + semicolonSeparated.hitCount();
+    }
+
+    public long missCount() {
+        return ampersandSeparated.missCount() + semicolonSeparated.missCount();
+    }
+
+    public void clear() {
+        ampersandSeparated.clear();
+        semicolonSeparated.clear();
+    }
+
+    /**
+     * Parameters that can not be modified, neither through the map nor through its value lists. They are built
+     * straight from the offsets of the {@link QueryParameters} view, a name seen once holding a singleton list.
+     */
+    private static final class UnmodifiableParameters extends LinkedMultiValueMap<String, String> {
+
+        private static final long serialVersionUID = 1L;
+
+        private UnmodifiableParameters(final QueryParameters parameters) {
+            super(0);
+            int count = parameters.size();
+            Map<String, List<String>> values = new LinkedHashMap<>(Math.max(count * 2, 1));
+            for (int i = 0; i < count; i++) {
+                String name = parameters.name(i);
+                String value = parameters.value(i);
+                List<String> list = values.get(name);
+                if (list == null) {
+                    values.put(name, Collections.singletonList(value));
+                } else if (list instanceof ArrayList) {
+                    list.add(value);
+                } else {
+                    List<String> repeated = new ArrayList<>(4);
+                    repeated.addAll(list);
+                    repeated.add(value);
+                    values.put(name, repeated);
+                }
+            }
+            values.replaceAll((name, list) -> list instanceof ArrayList ? Collections.unmodifiableList(list) : list);
+            this.targetMap = Collections.unmodifiableMap(values);
+        }
+    }
+}
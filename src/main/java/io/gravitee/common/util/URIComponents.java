@@ -0,0 +1,250 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+/**
+ * Components of a URI reference, as split by the regular expression of RFC 3986 appendix B, without using a regular
+ * expression nor copying anything.
+ *
+ * <pre>
+ *   scheme://authority/path?query#fragment
+ * </pre>
+ *
+ * Components are exposed as offsets in the original string and as {@link CharSequence} views over it. An absent
+ * component has a start offset of {@code -1} and a {@code null} view, whereas an empty one (e.g. the query of
+ * {@code /echo?}) has equal start and end offsets. The path is never absent but may be empty. Nothing is validated nor
+ * decoded: this is meant for routing and endpoint resolution on URIs that have already been accepted by the server.
+ *
+ * @author GraviteeSource Team
+ */
+public final class URIComponents {
+
+    private final String uri;
+    private final int schemeEnd;
+    private final int authorityStart;
+    private final int authorityEnd;
+    private final int pathStart;
+    private final int pathEnd;
+    private final int queryStart;
+    private final int queryEnd;
+    private final int fragmentStart;
+
+    private URIComponents(final String uri) {
+        this.uri = uri;
+        int length = uri.length();
+
+        int i = 0;
+        while (i < length && uri.charAt(i) != ':' && !isDelimiter(uri.charAt(i), true)) {
+            i++;
+        }
+        int index = 0;
+        if (i > 0 && i < length && uri.charAt(i) == ':') {
+            schemeEnd = i;
+            index = i + 1;
+        } else {
+            schemeEnd = -1;
+        }
+
+        if (uri.startsWith("//", index)) {
+            authorityStart = index + 2;
+            index = indexOfDelimiter(uri, authorityStart, true);
+            authorityEnd = index;
+        } else {
+            authorityStart = -1;
+            authorityEnd = -1;
+        }
+
+        pathStart = index;
+        index = indexOfDelimiter(uri, index, false);
+        pathEnd = index;
+
+        if (index < length && uri.charAt(index) == '?') {
+            queryStart = index + 1;
+            int hash = uri.indexOf('#', queryStart);
+            index = hash < 0 ? length : hash;
+            queryEnd = index;
+        } else {
+            queryStart = -1;
+            queryEnd = -1;
+        }
+
+        fragmentStart = index < length ? index + 1 : -1;
+    }
+
+    /**
+     * Split the given URI.
+     */
+    public static URIComponents split(String uri) {
+        if (uri == null) {
+            throw new IllegalArgumentException("URI must not be null");
+        }
+        return new URIComponents(uri);
+    }
+
+    public String uri() {
+        return uri;
+    }
+
+    public boolean hasScheme() {
+        return schemeEnd >= 0;
+    }
+
+    public int schemeStart() {
+        return schemeEnd < 0 ? -1 : 0;
+    }
+
+    public int schemeEnd() {
+        return schemeEnd;
+    }
+
+    public CharSequence scheme() {
+        return schemeEnd < 0 ? null : new Slice(uri, 0, schemeEnd);
+    }
+
+    public boolean hasAuthority() {
+        return authorityStart >= 0;
+    }
+
+    public int authorityStart() {
+        return authorityStart;
+    }
+
+    public int authorityEnd() {
+        return authorityEnd;
+    }
+
+    public CharSequence authority() {
+        return authorityStart < 0 ? null : new Slice(uri, authorityStart, authorityEnd);
+    }
+
+    public int pathStart() {
+        return pathStart;
+    }
+
+    public int pathEnd() {
+        return pathEnd;
+    }
+
+    public CharSequence path() {
+        return new Slice(uri, pathStart, pathEnd);
+    }
+
+    public boolean hasQuery() {
+        return queryStart >= 0;
+    }
+
+    public int queryStart() {
+        return queryStart;
+    }
+
+    public int queryEnd() {
+        return queryEnd;
+    }
+
+    public CharSequence query() {
+        return queryStart < 0 ? null : new Slice(uri, queryStart, queryEnd);
+    }
+
+    public boolean hasFragment() {
+        return fragmentStart >= 0;
+    }
+
+    public int fragmentStart() {
+        return fragmentStart;
+    }
+
+    public int fragmentEnd() {
+        return fragmentStart < 0 ? -1 : uri.length();
+    }
+
+    public CharSequence fragment() {
+        return fragmentStart < 0 ? null : new Slice(uri, fragmentStart, uri.length());
+    }
+
+    /**
+     * @return whether the scheme is the given one, ignoring case as schemes are case-insensitive
+     */
+    public boolean schemeEquals(String scheme) {
+        return schemeEnd == scheme.length() && uri.regionMatches(true, 0, scheme, 0, schemeEnd);
+    }
+
+    /**
+     * @return whether the path starts with the given prefix
+     */
+    public boolean pathStartsWith(String prefix) {
+        return pathEnd - pathStart >= prefix.length() && uri.startsWith(prefix, pathStart);
+    }
+
+    @Override
+    public String toString() {
+        return uri;
+    }
+
+    private static int indexOfDelimiter(final String uri, final int from, final boolean includeSlash) {
+        int length = uri.length();
+        int i = from;
+        while (i < length && !isDelimiter(uri.charAt(i), includeSlash)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isDelimiter(final char c, final boolean includeSlash) {
+        return c == '?' || c == '#' || (includeSlash && c == '/');
+    }
+
+    /**
+     * Read-only view over a region of a string. The region is only copied by {@link #toString()}.
+     */
+    private static final class Slice implements CharSequence {
+
+        private final String value;
+        private final int start;
+        private final int end;
+
+        private Slice(final String value, final int start, final int end) {
+            this.value = value;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", length: " + (end - start));
+            }
+            return value.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if (from < 0 || to > end - start || from > to) {
+                throw new IndexOutOfBoundsException("From: " + from + ", to: " + to + ", length: " + (end - start));
+            }
+            return new Slice(value, start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            return value.substring(start, end);
+        }
+    }
+}
@@ -15,20 +15,13 @@
  */
 package io.gravitee.common.util;
 
-import java.util.regex.Pattern;
-
 /**
  * @author Nicolas GERAUD (nicolas.geraud at graviteesource.com)
  * @author GraviteeSource Team
  */
 public class URIUtils {
 
-    private static final Pattern URL_PATTERN = Pattern.compile("^\\w{2,}://.*$");
-    private static final char FRAGMENT_SEPARATOR_CHAR = '#';
-    private static final char QUERYPARAM_SEPARATOR_CHAR1 = '&';
-    private static final char QUERYPARAM_SEPARATOR_CHAR2 = ';';
-    private static final char QUERYPARAM_VALUE_SEPARATOR_CHAR = '=';
-    private static final char QUERY_SEPARATOR_CHAR = '?';
+    private static final int MIN_SCHEME_LENGTH = 2;
 
     /**
      * An url is considered absolute if it starts with <code>protocol://</code>.
@@ -43,12 +36,25 @@ public class URIUtils {
      *     <li>?foo=bar: is not absolute</li>
      *     <li><i>empty</i>: is not absolute</li>
      * </ul>
+     * Only the scheme prefix is inspected, the rest of the uri is not scanned.
      *
      * @param uri the uri to test.
      * @return <code>true</code> if the uri is considered absolute, <code>false</code> otherwise.
      */
     public static boolean isAbsolute(final String uri) {
-        return uri != null && URL_PATTERN.matcher(uri).matches();
+        if (uri == null) {
+            return false;
+        }
+        int length = uri.length();
+        int i = 0;
+        while (i < length && isWordChar(uri.charAt(i))) {
+            i++;
+        }
+        return i >= MIN_SCHEME_LENGTH && uri.startsWith("://", i);
+    }
+
+    private static boolean isWordChar(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
     }
 
     /**
@@ -68,59 +74,17 @@ public class URIUtils {
      * @return a {@link MultiValueMap<String, String>} of query parameters
      */
     public static MultiValueMap<String, String> parameters(String uri, boolean semicolonIsNormalChar) {
-        MultiValueMap<String, String> queryParameters;
-        int questionMarkIndex = uri.indexOf(QUERY_SEPARATOR_CHAR);
-        if (questionMarkIndex < 0 || uri.length() == (questionMarkIndex + 1)) {
-            queryParameters = new LinkedMultiValueMap<>(0);
-        } else {
-            queryParameters = new LinkedMultiValueMap<>();
-            int end = uri.length();
-            int i;
-            int paramNameStart = questionMarkIndex + 1;
-            int paramValueStart = -1;
-            loop: for (i = questionMarkIndex + 1; i < end; i++) {
-                switch (uri.charAt(i)) {
-                    case QUERYPARAM_VALUE_SEPARATOR_CHAR:
-                        if (paramNameStart == i) {
-                            paramNameStart = i + 1;
-                        } else if (paramValueStart < paramNameStart) {
-                            paramValueStart = i + 1;
-                        }
-                        break;
-                    case QUERYPARAM_SEPARATOR_CHAR2:
-                        if (semicolonIsNormalChar) {
-                            continue;
-                        }
-                    case QUERYPARAM_SEPARATOR_CHAR1:
-                        addParameter(queryParameters, uri, paramNameStart, paramValueStart, i);
-                        paramNameStart = i + 1;
-                        break;
-                    case FRAGMENT_SEPARATOR_CHAR:
-                        break loop;
-                    default:
-                    // continue
-                }
-            }
-            if (paramNameStart < i) {
-                addParameter(queryParameters, uri, paramNameStart, paramValueStart, i);
-            }
-        }
-        return queryParameters;
+        return QueryParameters.of(uri, semicolonIsNormalChar, false).toMultiValueMap();
     }
 
-    private static void addParameter(
-        MultiValueMap<String, String> queryParameters,
-        String uri,
-        int paramNameStart,
-        int paramValueStart,
-        int end
-    ) {
-        if (paramValueStart == -1 || paramValueStart < paramNameStart) {
-            queryParameters.add(uri.substring(paramNameStart, end), null);
-        } else {
-            String k = uri.substring(paramNameStart, paramValueStart - 1);
-            String v = uri.substring(paramValueStart, end);
-            queryParameters.add(k, v);
-        }
+    /**
+     * Lazy view over the query parameters of an URI, only materializing the parameters that are read.
+     * @param uri to extract query parameters from
+     * @param semicolonIsNormalChar when true, semicolon character is not considered as a separator
+     * @param decode when true, names and values are percent-decoded
+     * @return a {@link QueryParameters} view
+     */
+    public static QueryParameters queryParameters(String uri, boolean semicolonIsNormalChar, boolean decode) {
+        return QueryParameters.of(uri, semicolonIsNormalChar, decode);
     }
 }
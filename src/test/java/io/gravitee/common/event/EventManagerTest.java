@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.event;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class EventManagerTest {
+
+    /**
+     * Implements the abstract methods only, as implementations written before selectors were added do.
+     */
+    private static final EventManager MINIMAL_EVENT_MANAGER = new EventManager() {
+        @Override
+        public <T extends Enum<T>, S> void publishEvent(T type, S content) {}
+
+        @Override
+        public <T extends Enum<T>, S> void publishEvent(Event<T, S> event) {}
+
+        @Override
+        public <T extends Enum<T>> void subscribeForEvents(EventListener<T, ?> eventListener, Class<T> eventTypeClass) {}
+
+        @Override
+        public <T extends Enum<T>> void subscribeForEvents(EventListener<T, ?> eventListener, T... eventTypes) {}
+
+        @Override
+        public <T extends Enum<T>> void unsubscribeForEvents(EventListener<T, ?> eventListener, Class<T> eventTypesClass) {}
+
+        @Override
+        public <T extends Enum<T>> void unsubscribeForEvents(EventListener<T, ?> eventListener, T... eventTypes) {}
+    };
+
+    @Test
+    void should_not_support_selectors_by_default() {
+        assertThatThrownBy(() -> MINIMAL_EVENT_MANAGER.subscribe(event -> {}, EventSelector.all()))
+            .isInstanceOf(UnsupportedOperationException.class);
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.event.bridge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gravitee.common.event.Event;
+import io.gravitee.common.event.EventListener;
+import io.gravitee.common.event.EventSerializer;
+import io.gravitee.common.event.SampleEventType;
+import io.gravitee.common.event.Subscription;
+import io.gravitee.common.event.impl.EventManagerImpl;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class EventBridgeTest {
+
+    private static final EventSerializer SERIALIZER = new EventSerializer() {
+        @Override
+        public byte[] serialize(Event<?, ?> event) {
+            return ((String) event.content()).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Object deserialize(Enum<?> eventType, byte[] content) {
+            return new String(content, StandardCharsets.UTF_8);
+        }
+    };
+
+    private final List<EventBridge> bridges = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void afterEach() throws Exception {
+        for (EventBridge bridge : bridges) {
+            bridge.stop();
+        }
+    }
+
+    @Test
+    void should_forward_events_to_other_nodes_only() throws Exception {
+        LoopbackEventTransport transport = new LoopbackEventTransport();
+        EventManagerImpl node1 = new EventManagerImpl();
+        EventManagerImpl node2 = new EventManagerImpl();
+        EventBridge bridge1 = bridge(node1, transport, 0);
+        bridge(node2, transport, 0);
+        List<String> received1 = listen(node1);
+        List<String> received2 = listen(node2);
+
+        node1.publishEvent(SampleEventType.DEPLOY, "api1");
+        bridge1.flush();
+
+        assertThat(received1).containsExactly("api1@local");
+        assertThat(received2).containsExactly("api1@" + bridge1.nodeId());
+    }
+
+    @Test
+    void should_send_identical_events_published_in_a_row_once() throws Exception {
+        LoopbackEventTransport transport = new LoopbackEventTransport();
+        EventManagerImpl node1 = new EventManagerImpl();
+        EventManagerImpl node2 = new EventManagerImpl();
+        EventBridge bridge1 = bridge(node1, transport, 0);
+        bridge(node2, transport, 0);
+        List<String> received2 = listen(node2);
+
+        node1.publishEvent(SampleEventType.DEPLOY, "api1");
+        node1.publishEvent(SampleEventType.DEPLOY, "api1");
+        node1.publishEvent(SampleEventType.UNDEPLOY, "api1");
+        bridge1.flush();
+
+        assertThat(received2).hasSize(2);
+    }
+
+    @Test
+    void should_keep_order_of_identical_events_published_apart() throws Exception {
+        LoopbackEventTransport transport = new LoopbackEventTransport();
+        EventManagerImpl node1 = new EventManagerImpl();
+        EventManagerImpl node2 = new EventManagerImpl();
+        EventBridge bridge1 = bridge(node1, transport, 0);
+        bridge(node2, transport, 0);
+        List<SampleEventType> received2 = new CopyOnWriteArrayList<>();
+        node2.subscribe((EventListener<SampleEventType, String>) event -> received2.add(event.type()), SampleEventType.class);
+
+        node1.publishEvent(SampleEventType.DEPLOY, "api1");
+        node1.publishEvent(SampleEventType.UNDEPLOY, "api1");
+        node1.publishEvent(SampleEventType.DEPLOY, "api1");
+        bridge1.flush();
+
+        assertThat(received2).containsExactly(SampleEventType.DEPLOY, SampleEventType.UNDEPLOY, SampleEventType.DEPLOY);
+    }
+
+    @Test
+    void should_not_forward_events_once_stopped() throws Exception {
+        List<byte[]> sent = new CopyOnWriteArrayList<>();
+        EventTransport transport = new EventTransport() {
+            @Override
+            public void send(byte[] batch) {
+                sent.add(batch);
+            }
+
+            @Override
+            public Subscription receive(Consumer<byte[]> handler) {
+                return () -> {};
+            }
+        };
+        EventManagerImpl node = new EventManagerImpl();
+        EventBridge bridge = EventBridge
+            .builder()
+            .eventManager(node)
+            .transport(transport)
+            .serializer(SERIALIZER)
+            .eventTypeClasses(List.of(SampleEventType.class))
+            .maxBatchSize(1)
+            .build()
+            .start();
+        bridge.stop();
+
+        node.publishEvent(SampleEventType.DEPLOY, "api1");
+
+        assertThat(sent).isEmpty();
+    }
+
+    @Test
+    void should_ignore_batches_with_invalid_lengths() throws Exception {
+        LoopbackEventTransport transport = new LoopbackEventTransport();
+        EventManagerImpl node = new EventManagerImpl();
+        bridge(node, transport, 0);
+        List<String> received = listen(node);
+
+        transport.send(batch(1, output -> output.writeInt(Integer.MAX_VALUE)));
+        transport.send(batch(2, output -> output.writeInt(-1)));
+        transport.send(
+            batch(3, output -> {
+                output.writeInt(Integer.BYTES);
+                output.writeInt(Integer.MAX_VALUE);
+            })
+        );
+        transport.send(
+            batch(4, output -> {
+                output.writeInt(Integer.BYTES + 2 * Short.BYTES + Integer.BYTES);
+                output.writeInt(1);
+                output.writeUTF("");
+                output.writeUTF("");
+                output.writeInt(Integer.MAX_VALUE);
+            })
+        );
+
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    void should_discard_batches_received_twice() throws Exception {
+        LoopbackEventTransport loopback = new LoopbackEventTransport();
+        EventTransport duplicating = new EventTransport() {
+            @Override
+            public void send(byte[] batch) {
+                loopback.send(batch);
+                loopback.send(batch);
+            }
+
+            @Override
+            public Subscription receive(Consumer<byte[]> handler) {
+                return loopback.receive(handler);
+            }
+        };
+        EventManagerImpl node1 = new EventManagerImpl();
+        EventManagerImpl node2 = new EventManagerImpl();
+        EventBridge bridge1 = bridge(node1, duplicating, 0);
+        bridge(node2, duplicating, 0);
+        List<String> received2 = listen(node2);
+
+        node1.publishEvent(SampleEventType.DEPLOY, "api1");
+        bridge1.flush();
+
+        assertThat(received2).containsExactly("api1@" + bridge1.nodeId());
+    }
+
+    @Test
+    void should_forward_compressed_batches() throws Exception {
+        LoopbackEventTransport transport = new LoopbackEventTransport();
+        EventManagerImpl node1 = new EventManagerImpl();
+        EventManagerImpl node2 = new EventManagerImpl();
+        EventBridge bridge1 = bridge(node1, transport, 1);
+        bridge(node2, transport, 1);
+        List<String> received2 = listen(node2);
+
+        for (int i = 0; i < 50; i++) {
+            node1.publishEvent(SampleEventType.DEPLOY, "api" + i);
+        }
+        bridge1.flush();
+
+        assertThat(received2).hasSize(50).startsWith("api0@" + bridge1.nodeId()).endsWith("api49@" + bridge1.nodeId());
+    }
+
+    /**
+     * Build an uncompressed batch coming from another node, the body being written by the given writer.
+     */
+    private static byte[] batch(long sequence, BatchWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeUTF("other-node");
+        output.writeLong(sequence);
+        output.writeBoolean(false);
+        writer.write(output);
+        return bytes.toByteArray();
+    }
+
+    private interface BatchWriter {
+        void write(DataOutputStream output) throws IOException;
+    }
+
+    private EventBridge bridge(EventManagerImpl eventManager, EventTransport transport, int compressionThreshold) throws Exception {
+        EventBridge bridge = EventBridge
+            .builder()
+            .eventManager(eventManager)
+            .transport(transport)
+            .serializer(SERIALIZER)
+            .eventTypeClasses(List.of(SampleEventType.class))
+            .maxBatchDelay(Duration.ofMinutes(1))
+            .compressionThreshold(compressionThreshold)
+            .build()
+            .start();
+        bridges.add(bridge);
+        return bridge;
+    }
+
+    private static List<String> listen(EventManagerImpl eventManager) {
+        List<String> received = new CopyOnWriteArrayList<>();
+        eventManager.subscribe(
+            (EventListener<SampleEventType, String>) event ->
+                received.add(event.content() + "@" + (event instanceof BridgedEvent<?, ?> bridged ? bridged.origin() : "local")),
+            SampleEventType.class
+        );
+        return received;
+    }
+}
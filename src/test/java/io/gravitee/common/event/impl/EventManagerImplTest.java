@@ -19,8 +19,12 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
 
 import io.gravitee.common.event.EventListener;
+import io.gravitee.common.event.EventSelector;
 import io.gravitee.common.event.SampleEventType;
+import io.gravitee.common.event.Subscription;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
@@ -148,4 +152,134 @@ class EventManagerImplTest {
                 });
         }
     }
+
+    @Nested
+    class SubscriptionTest {
+
+        @Test
+        void should_not_receive_any_event_after_unsubscribing_with_subscription() {
+            Set<String> contentReceived = new HashSet<>();
+            Subscription subscription = cut.subscribe(
+                (EventListener<SampleEventType, String>) event -> contentReceived.add(event.content()),
+                SampleEventType.class
+            );
+            cut.publishEvent(SampleEventType.DEPLOY, "value1");
+            subscription.unsubscribe();
+            subscription.unsubscribe();
+            cut.publishEvent(SampleEventType.DEPLOY, "value2");
+
+            assertThat(contentReceived).containsOnly("value1");
+        }
+
+        @Test
+        void should_only_remove_own_subscription_when_same_listener_subscribed_twice() {
+            Set<String> contentReceived = new HashSet<>();
+            EventListener<SampleEventType, String> eventListener = event -> contentReceived.add(event.content());
+            Subscription subscription = cut.subscribe(eventListener, SampleEventType.UNDEPLOY);
+            cut.subscribe(eventListener, SampleEventType.DEPLOY);
+            subscription.unsubscribe();
+            cut.publishEvent(SampleEventType.DEPLOY, "value1");
+            cut.publishEvent(SampleEventType.UNDEPLOY, "value2");
+
+            assertThat(contentReceived).containsOnly("value1");
+        }
+
+        @Test
+        void should_keep_remaining_listeners_in_subscription_order_after_many_unsubscriptions() {
+            List<Integer> received = new ArrayList<>();
+            List<Subscription> subscriptions = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                int index = i;
+                subscriptions.add(
+                    cut.subscribe((EventListener<SampleEventType, String>) event -> received.add(index), SampleEventType.DEPLOY)
+                );
+            }
+            for (int i = 0; i < 100; i++) {
+                if (i % 10 != 0) {
+                    subscriptions.get(i).unsubscribe();
+                }
+            }
+
+            cut.publishEvent(SampleEventType.DEPLOY, "value");
+
+            assertThat(received).containsExactly(0, 10, 20, 30, 40, 50, 60, 70, 80, 90);
+        }
+    }
+
+    @Nested
+    class EventSelectorTest {
+
+        @Test
+        void should_receive_events_of_any_type_when_subscribing_to_all_events() {
+            List<Enum<?>> received = new ArrayList<>();
+            cut.subscribe(event -> received.add(event.type()), EventSelector.all());
+
+            cut.publishEvent(SampleEventType.DEPLOY, "value1");
+            cut.publishEvent(OtherEventType.STOP, "value2");
+
+            assertThat(received).containsExactly(SampleEventType.DEPLOY, OtherEventType.STOP);
+        }
+
+        @Test
+        void should_only_receive_events_whose_type_implements_marker_interface() {
+            List<Enum<?>> received = new ArrayList<>();
+            cut.subscribe(event -> received.add(event.type()), EventSelector.typesAssignableTo(MarkerEventType.class));
+
+            cut.publishEvent(SampleEventType.DEPLOY, "value1");
+            cut.publishEvent(OtherEventType.STOP, "value2");
+
+            assertThat(received).containsExactly(OtherEventType.STOP);
+        }
+
+        @Test
+        void should_only_receive_events_whose_content_matches_type() {
+            List<Object> received = new ArrayList<>();
+            cut.subscribe(event -> received.add(event.content()), EventSelector.contentInstanceOf(Integer.class));
+
+            cut.publishEvent(SampleEventType.DEPLOY, "value1");
+            cut.publishEvent(SampleEventType.UNDEPLOY, 2);
+
+            assertThat(received).containsExactly(2);
+        }
+
+        @Test
+        void should_not_receive_any_event_after_unsubscribing() {
+            List<Enum<?>> received = new ArrayList<>();
+            Subscription subscription = cut.subscribe(event -> received.add(event.type()), EventSelector.all());
+            subscription.unsubscribe();
+
+            cut.publishEvent(SampleEventType.DEPLOY, "value1");
+            cut.publishEvent(OtherEventType.STOP, "value2");
+
+            assertThat(received).isEmpty();
+        }
+    }
+
+    @Nested
+    class MetricsTest {
+
+        @Test
+        void should_record_publish_count_fan_out_and_latency_per_event_type() {
+            RecordingEventMetrics metrics = new RecordingEventMetrics();
+            cut = new EventManagerImpl(metrics);
+            cut.subscribe((EventListener<SampleEventType, String>) event -> {}, SampleEventType.class);
+            cut.subscribe((EventListener<SampleEventType, String>) event -> {}, SampleEventType.DEPLOY);
+
+            cut.publishEvent(SampleEventType.DEPLOY, "value1");
+            cut.publishEvent(SampleEventType.DEPLOY, "value2");
+            cut.publishEvent(SampleEventType.UNDEPLOY, "value3");
+
+            assertThat(metrics.published(SampleEventType.DEPLOY)).isEqualTo(2);
+            assertThat(metrics.fanOut(SampleEventType.DEPLOY)).isEqualTo(4);
+            assertThat(metrics.latency(SampleEventType.DEPLOY).count()).isEqualTo(2);
+            assertThat(metrics.published(SampleEventType.UNDEPLOY)).isEqualTo(1);
+            assertThat(metrics.fanOut(SampleEventType.UNDEPLOY)).isEqualTo(1);
+        }
+    }
+
+    interface MarkerEventType {}
+
+    enum OtherEventType implements MarkerEventType {
+        STOP,
+    }
 }
@@ -0,0 +1,293 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.event.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gravitee.common.event.Event;
+import io.gravitee.common.event.EventListener;
+import io.gravitee.common.event.EventSelector;
+import io.gravitee.common.event.EventSerializer;
+import io.gravitee.common.event.SampleEventType;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class MappedEventJournalTest {
+
+    private static final EventSerializer SERIALIZER = new EventSerializer() {
+        @Override
+        public byte[] serialize(Event<?, ?> event) {
+            return ((String) event.content()).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Object deserialize(Enum<?> eventType, byte[] content) {
+            return new String(content, StandardCharsets.UTF_8);
+        }
+    };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void should_replay_events_published_before_restart() throws IOException {
+        Path file = directory.resolve("events.journal");
+        try (MappedEventJournal journal = journal(file)) {
+            EventManagerImpl eventManager = new EventManagerImpl(journal);
+            eventManager.publishEvent(SampleEventType.DEPLOY, "api1:v1");
+            eventManager.publishEvent(SampleEventType.DEPLOY, "api2:v1");
+            eventManager.publishEvent(SampleEventType.UNDEPLOY, "api1:v2");
+        }
+
+        try (MappedEventJournal journal = journal(file)) {
+            EventManagerImpl eventManager = new EventManagerImpl(journal);
+            List<String> received = new ArrayList<>();
+            eventManager.subscribe((EventListener<SampleEventType, String>) event -> received.add(event.content()), SampleEventType.class);
+            eventManager.publishEvent(SampleEventType.DEPLOY, "api3:v1");
+
+            assertThat(received).containsExactly("api2:v1", "api1:v2", "api3:v1");
+        }
+    }
+
+    @Test
+    void should_only_replay_subscribed_event_types() throws IOException {
+        try (MappedEventJournal journal = journal(directory.resolve("events.journal"))) {
+            journal.append(new SimpleEvent<>(SampleEventType.DEPLOY, "api1:v1"));
+            journal.append(new SimpleEvent<>(SampleEventType.UNDEPLOY, "api2:v1"));
+
+            List<String> received = new ArrayList<>();
+            journal.replay(SampleEventType.class, EnumSet.of(SampleEventType.UNDEPLOY), event -> received.add((String) event.content()));
+
+            assertThat(received).containsExactly("api2:v1");
+        }
+    }
+
+    @Test
+    void should_grow_and_compact_when_full() throws IOException {
+        Path file = directory.resolve("events.journal");
+        try (MappedEventJournal journal = journal(file)) {
+            for (int i = 0; i < 1000; i++) {
+                journal.append(new SimpleEvent<>(SampleEventType.DEPLOY, "api" + (i % 10) + ":v" + i));
+            }
+            journal.compact();
+
+            List<String> received = new ArrayList<>();
+            journal.replay(SampleEventType.class, EnumSet.allOf(SampleEventType.class), event -> received.add((String) event.content()));
+
+            assertThat(received).hasSize(10).contains("api0:v990", "api9:v999");
+        }
+        assertThat(Files.size(file)).isLessThan(1000 * 32);
+    }
+
+    @Test
+    void should_ignore_corrupted_records_on_restart() throws IOException {
+        Path file = directory.resolve("events.journal");
+        try (MappedEventJournal journal = journal(file)) {
+            journal.append(new SimpleEvent<>(SampleEventType.DEPLOY, "api1:v1"));
+            journal.append(new SimpleEvent<>(SampleEventType.DEPLOY, "api2:v1"));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            long end = 0;
+            while (raf.length() > end) {
+                raf.seek(end);
+                int length = raf.readInt();
+                if (length == 0) {
+                    break;
+                }
+                end += 8 + length;
+            }
+            raf.seek(end - 1);
+            raf.write('X');
+        }
+
+        try (MappedEventJournal journal = journal(file)) {
+            journal.append(new SimpleEvent<>(SampleEventType.DEPLOY, "api3:v1"));
+
+            List<String> received = new ArrayList<>();
+            journal.replay(SampleEventType.class, EnumSet.allOf(SampleEventType.class), event -> received.add((String) event.content()));
+
+            assertThat(received).containsExactly("api1:v1", "api3:v1");
+        }
+    }
+
+    @Test
+    void should_not_block_publishers_while_replaying_to_slow_listener() throws Exception {
+        try (MappedEventJournal journal = journal(directory.resolve("events.journal"))) {
+            EventManagerImpl eventManager = new EventManagerImpl(journal);
+            eventManager.publishEvent(SampleEventType.DEPLOY, "api1:v1");
+
+            CountDownLatch replaying = new CountDownLatch(1);
+            CountDownLatch published = new CountDownLatch(1);
+            List<String> received = new CopyOnWriteArrayList<>();
+            AtomicBoolean publishedWhileReplaying = new AtomicBoolean();
+            Thread subscriber = new Thread(() ->
+                eventManager.subscribe(
+                    (EventListener<SampleEventType, String>) event -> {
+                        if (received.isEmpty()) {
+                            replaying.countDown();
+                            publishedWhileReplaying.set(await(published));
+                        }
+                        received.add(event.content());
+                    },
+                    SampleEventType.class
+                )
+            );
+            subscriber.start();
+
+            assertThat(replaying.await(10, TimeUnit.SECONDS)).isTrue();
+            eventManager.publishEvent(SampleEventType.UNDEPLOY, "api1:v2");
+            published.countDown();
+            subscriber.join(10_000);
+
+            assertThat(publishedWhileReplaying).isTrue();
+            assertThat(received).containsExactly("api1:v1", "api1:v2");
+        }
+    }
+
+    @Test
+    void should_not_block_publishers_while_reading_journal() throws Exception {
+        CountDownLatch decoding = new CountDownLatch(1);
+        CountDownLatch published = new CountDownLatch(1);
+        AtomicBoolean publishedWhileDecoding = new AtomicBoolean();
+        EventSerializer slowSerializer = new EventSerializer() {
+            @Override
+            public byte[] serialize(Event<?, ?> event) {
+                return SERIALIZER.serialize(event);
+            }
+
+            @Override
+            public Object deserialize(Enum<?> eventType, byte[] content) {
+                decoding.countDown();
+                publishedWhileDecoding.set(await(published));
+                return SERIALIZER.deserialize(eventType, content);
+            }
+        };
+        Path file = directory.resolve("events.journal");
+        try (MappedEventJournal journal = new MappedEventJournal(file, 256, EventSelector.all(), slowSerializer, null)) {
+            EventManagerImpl eventManager = new EventManagerImpl(journal);
+            eventManager.publishEvent(SampleEventType.DEPLOY, "api1:v1");
+
+            List<String> received = new CopyOnWriteArrayList<>();
+            Thread subscriber = new Thread(() ->
+                eventManager.subscribe(
+                    (EventListener<SampleEventType, String>) event -> received.add(event.content()),
+                    SampleEventType.class
+                )
+            );
+            subscriber.start();
+
+            assertThat(decoding.await(10, TimeUnit.SECONDS)).isTrue();
+            eventManager.publishEvent(SampleEventType.UNDEPLOY, "api1:v2");
+            published.countDown();
+            subscriber.join(10_000);
+
+            assertThat(publishedWhileDecoding).isTrue();
+            assertThat(received).containsExactly("api1:v1", "api1:v2");
+        }
+    }
+
+    @Test
+    void should_replay_captured_events_without_compacting_in_the_meantime() throws IOException {
+        try (MappedEventJournal journal = journal(directory.resolve("events.journal"))) {
+            journal.append(new SimpleEvent<>(SampleEventType.DEPLOY, "api1:v1"));
+            journal.append(new SimpleEvent<>(SampleEventType.DEPLOY, "api2:v1"));
+            List<String> received = new ArrayList<>();
+            Runnable replay = journal.prepareReplay(
+                SampleEventType.class,
+                EnumSet.allOf(SampleEventType.class),
+                event -> received.add((String) event.content())
+            );
+
+            for (int i = 0; i < 100; i++) {
+                journal.append(new SimpleEvent<>(SampleEventType.DEPLOY, "api1:v" + (i + 2)));
+            }
+            journal.compact();
+            replay.run();
+
+            assertThat(received).containsExactly("api1:v1", "api2:v1");
+
+            received.clear();
+            journal.compact();
+            journal.replay(SampleEventType.class, EnumSet.allOf(SampleEventType.class), event -> received.add((String) event.content()));
+            assertThat(received).containsExactly("api2:v1", "api1:v101");
+        }
+    }
+
+    @Test
+    void should_never_compact_without_key_extractor() throws IOException {
+        Path file = directory.resolve("events.journal");
+        try (MappedEventJournal journal = new MappedEventJournal(file, 256, EventSelector.all(), SERIALIZER, null)) {
+            journal.append(new SimpleEvent<>(SampleEventType.DEPLOY, "api1:v1"));
+            journal.append(new SimpleEvent<>(SampleEventType.DEPLOY, "api1:v2"));
+            journal.compact();
+
+            List<String> received = new ArrayList<>();
+            journal.replay(SampleEventType.class, EnumSet.allOf(SampleEventType.class), event -> received.add((String) event.content()));
+
+            assertThat(received).containsExactly("api1:v1", "api1:v2");
+        }
+    }
+
+    @Test
+    void should_compact_journal_reopened_several_times() throws IOException {
+        Path file = directory.resolve("events.journal");
+        for (int i = 0; i < 3; i++) {
+            try (MappedEventJournal journal = journal(file)) {
+                for (int j = 0; j < 100; j++) {
+                    journal.append(new SimpleEvent<>(SampleEventType.DEPLOY, "api" + (j % 5) + ":v" + i + "." + j));
+                }
+            }
+        }
+
+        try (MappedEventJournal journal = journal(file)) {
+            List<String> received = new ArrayList<>();
+            journal.replay(SampleEventType.class, EnumSet.allOf(SampleEventType.class), event -> received.add((String) event.content()));
+
+            assertThat(received).containsExactly("api0:v2.95", "api1:v2.96", "api2:v2.97", "api3:v2.98", "api4:v2.99");
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static MappedEventJournal journal(Path file) throws IOException {
+        return new MappedEventJournal(file, 256, EventSelector.all(), SERIALIZER, event -> ((String) event.content()).split(":")[0]);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class EncodedHeadersTest {
+
+    @Test
+    void should_encode_http1_lines() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Content-Type", "application/json");
+        headers.add("Vary", "Origin");
+        headers.add("Vary", "Accept");
+
+        EncodedHeaders encoded = EncodedHeaders.encode(headers);
+
+        assertThat(encoded.size()).isEqualTo(3);
+        assertThat(StandardCharsets.ISO_8859_1.decode(encoded.http1()).toString())
+            .isEqualTo("Content-Type: application/json\r\nVary: Origin\r\nVary: Accept\r\n");
+    }
+
+    @Test
+    void should_encode_hpack_literals() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Content-Type", "text/plain");
+        headers.add("Set-Cookie", "a=1");
+
+        ByteBuffer hpack = EncodedHeaders.encode(headers).hpack();
+
+        ByteBuffer expected = ByteBuffer.allocate(64);
+        expected.put((byte) 0x00).put((byte) 12).put("content-type".getBytes()).put((byte) 10).put("text/plain".getBytes());
+        expected.put((byte) 0x10).put((byte) 10).put("set-cookie".getBytes()).put((byte) 3).put("a=1".getBytes());
+        expected.flip();
+        assertThat(hpack).isEqualTo(expected);
+    }
+
+    @Test
+    void should_encode_long_hpack_lengths_on_several_bytes() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Long", "x".repeat(300));
+
+        EncodedHeaders encoded = EncodedHeaders.encode(headers);
+        ByteBuffer hpack = encoded.hpack();
+
+        // 300 = 127 + 173, 173 being written as 0xAD (low 7 bits with continuation) then 0x01.
+        assertThat(hpack.get(8)).isEqualTo((byte) 0x7F);
+        assertThat(hpack.get(9)).isEqualTo((byte) 0xAD);
+        assertThat(hpack.get(10)).isEqualTo((byte) 0x01);
+        assertThat(hpack.remaining()).isEqualTo(1 + 1 + 6 + 3 + 300);
+        assertThat(encoded.headerListSize()).isEqualTo(6 + 300 + 32);
+    }
+
+    @Test
+    void should_cache_encoded_headers_by_content() {
+        EncodedHeadersCache cache = new EncodedHeadersCache(16);
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Access-Control-Allow-Origin", "*");
+        HttpHeaders sameHeaders = new FlatHttpHeaders(headers);
+
+        EncodedHeaders encoded = cache.encode(HttpHeadersSnapshot.of(headers));
+
+        assertThat(cache.encode(sameHeaders)).isSameAs(encoded);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "X Header", "X-Header\r\nX-Injected", "X-H\u00e9ader", "X:Header" })
+    void should_reject_invalid_names(String name) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(name, "value");
+
+        assertThatThrownBy(() -> EncodedHeaders.encode(headers)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "value\r\nX-Injected: 1", "value\n", "val\u0000ue", "\u20ac", " value", "value\t" })
+    void should_reject_invalid_values(String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Header", value);
+
+        assertThatThrownBy(() -> EncodedHeaders.encode(headers)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void should_accept_tabs_spaces_and_latin_1_in_values() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Header", "a\tb c\u00e9");
+        headers.add("X-Empty", "");
+
+        EncodedHeaders encoded = EncodedHeaders.encode(headers);
+
+        assertThat(StandardCharsets.ISO_8859_1.decode(encoded.http1()).toString()).isEqualTo("X-Header: a\tb c\u00e9\r\nX-Empty: \r\n");
+    }
+
+    @Test
+    void should_not_cache_invalid_headers() {
+        EncodedHeadersCache cache = new EncodedHeadersCache(16);
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Header", "value\r\nX-Injected: 1");
+
+        assertThatThrownBy(() -> cache.encode(headers)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(cache.size()).isZero();
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class FlatHttpHeadersTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = { 2, 20 })
+    void should_get_values_ignoring_case(int count) {
+        FlatHttpHeaders headers = new FlatHttpHeaders();
+        for (int i = 0; i < count; i++) {
+            headers.add("X-Header-" + i, "value" + i);
+        }
+        headers.add("x-header-1", "other");
+
+        assertThat(headers).hasSize(count);
+        assertThat(headers.getFirst("X-HEADER-1")).isEqualTo("value1");
+        assertThat(headers.get("x-Header-1")).containsExactly("value1", "other");
+        assertThat(headers.containsKey("x-header-0")).isTrue();
+        assertThat(headers.getFirst("X-Unknown")).isNull();
+    }
+
+    @Test
+    void should_replace_values_on_set() {
+        FlatHttpHeaders headers = new FlatHttpHeaders();
+        headers.add("Accept", "text/html");
+        headers.add("Accept", "application/json");
+        headers.set("accept", "*/*");
+
+        assertThat(headers.get("Accept")).containsExactly("*/*");
+    }
+
+    @Test
+    void should_update_headers_through_value_views() {
+        FlatHttpHeaders headers = new FlatHttpHeaders();
+        headers.add("X-Forwarded-For", "10.0.0.1");
+        List<String> values = headers.get("x-forwarded-for");
+
+        values.add("10.0.0.2");
+        values.remove(0);
+
+        assertThat(headers.get("X-Forwarded-For")).containsExactly("10.0.0.2");
+    }
+
+    @Test
+    void should_keep_insertion_order_after_removal() {
+        FlatHttpHeaders headers = new FlatHttpHeaders();
+        for (int i = 0; i < 12; i++) {
+            headers.set("X-" + i, "v" + i);
+        }
+        headers.remove("x-3");
+        headers.entrySet().removeIf(entry -> entry.getKey().equals("X-7"));
+
+        List<String> names = new ArrayList<>(headers.keySet());
+        assertThat(names).containsExactly("X-0", "X-1", "X-2", "X-4", "X-5", "X-6", "X-8", "X-9", "X-10", "X-11");
+        assertThat(headers.getFirst("x-11")).isEqualTo("v11");
+    }
+
+    @Test
+    void should_copy_independently() {
+        FlatHttpHeaders headers = new FlatHttpHeaders();
+        headers.add("Host", "api.gravitee.io");
+        headers.add("Accept", "text/html");
+
+        FlatHttpHeaders copy = new FlatHttpHeaders(headers);
+        copy.add("Accept", "application/json");
+        copy.remove("Host");
+
+        assertThat(headers.get("Accept")).containsExactly("text/html");
+        assertThat(headers.getFirst("Host")).isEqualTo("api.gravitee.io");
+        assertThat(copy.get("Accept")).containsExactly("text/html", "application/json");
+    }
+
+    @Test
+    void should_be_equal_to_legacy_headers_with_same_content() {
+        HttpHeaders legacy = new HttpHeaders();
+        legacy.add("Host", "api.gravitee.io");
+        legacy.add("Accept", "text/html");
+        legacy.add("Accept", "application/json");
+
+        FlatHttpHeaders flat = new FlatHttpHeaders(legacy);
+
+        assertThat(flat).isEqualTo(legacy);
+        assertThat(flat.toSingleValueMap()).isEqualTo(Map.of("Host", "api.gravitee.io", "Accept", "text/html"));
+        assertThat(flat.containsAllKeys(List.of("host", "ACCEPT"))).isTrue();
+        assertThat(flat.containsAllKeys(List.of("host", "Origin"))).isFalse();
+    }
+
+    @Test
+    void should_not_share_modifications_between_copies() {
+        FlatHttpHeaders headers = new FlatHttpHeaders();
+        for (int i = 0; i < 12; i++) {
+            headers.add("X-" + i, "v" + i);
+        }
+        FlatHttpHeaders copy = new FlatHttpHeaders(headers);
+        FlatHttpHeaders copyOfCopy = new FlatHttpHeaders(copy);
+
+        headers.get("X-1").set(0, "updated");
+        copy.add("X-12", "v12");
+        copyOfCopy.clear();
+
+        assertThat(headers.getFirst("X-1")).isEqualTo("updated");
+        assertThat(headers.containsKey("X-12")).isFalse();
+        assertThat(copy.getFirst("X-1")).isEqualTo("v1");
+        assertThat(copy.getFirst("x-12")).isEqualTo("v12");
+        assertThat(copy).hasSize(13);
+        assertThat(copyOfCopy).isEmpty();
+        assertThat(headers).hasSize(12);
+    }
+
+    @Test
+    void should_remove_and_retain_headers_in_bulk() {
+        FlatHttpHeaders headers = new FlatHttpHeaders();
+        for (int i = 0; i < 12; i++) {
+            headers.add("X-" + i, "v" + i);
+        }
+        FlatHttpHeaders copy = new FlatHttpHeaders(headers);
+
+        assertThat(headers.removeAll(List.of("x-1", "X-3", "x-3", "X-Unknown"))).isTrue();
+        assertThat(headers.retainOnly(List.of("X-0", "x-2", "X-4", "x-11"))).isTrue();
+
+        assertThat(headers.keySet()).containsExactly("X-0", "X-2", "X-4", "X-11");
+        assertThat(headers.getFirst("x-11")).isEqualTo("v11");
+        assertThat(copy).hasSize(12);
+    }
+
+    @Test
+    void should_add_all_headers() {
+        FlatHttpHeaders headers = new FlatHttpHeaders();
+        headers.add("Accept", "text/html");
+        FlatHttpHeaders other = new FlatHttpHeaders();
+        other.add("ACCEPT", "application/json");
+        other.add("Host", "api.gravitee.io");
+
+        headers.addAll(other);
+        FlatHttpHeaders empty = new FlatHttpHeaders();
+        empty.addAll(other);
+        empty.add("Host", "other.gravitee.io");
+
+        assertThat(headers.get("accept")).containsExactly("text/html", "application/json");
+        assertThat(headers.getFirst("HOST")).isEqualTo("api.gravitee.io");
+        assertThat(empty.get("Host")).containsExactly("api.gravitee.io", "other.gravitee.io");
+        assertThat(other.get("Host")).containsExactly("api.gravitee.io");
+    }
+
+    @Test
+    void should_account_entries_and_size() {
+        FlatHttpHeaders headers = new FlatHttpHeaders();
+        headers.add("Accept", "text/html");
+        headers.add("accept", "application/json");
+        headers.set("Host", "api.gravitee.io");
+        headers.get("Host").add("other.gravitee.io");
+
+        assertThat(headers.entryCount()).isEqualTo(4);
+        assertThat(headers.byteSize()).isEqualTo(6 + 9 + 6 + 16 + 4 + 15 + 4 + 17);
+
+        headers.remove("ACCEPT");
+        headers.set("Host", "gravitee.io");
+
+        assertThat(headers.entryCount()).isEqualTo(1);
+        assertThat(headers.byteSize()).isEqualTo(4 + 11);
+    }
+
+    @Test
+    void should_reject_changes_exceeding_limits() {
+        FlatHttpHeaders headers = new FlatHttpHeaders(new HttpHeadersLimits(3, 20, 10));
+        headers.add("A", "1");
+        headers.add("B", "2");
+
+        assertThatThrownBy(() -> headers.set("B", "12345678901")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> headers.put("C", List.of("1", "2"))).isInstanceOf(IllegalArgumentException.class);
+        headers.add("C", "1234567890");
+        assertThatThrownBy(() -> headers.set("A", "1234567890")).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(headers.toSingleValueMap()).isEqualTo(Map.of("A", "1", "B", "2", "C", "1234567890"));
+        assertThat(headers.byteSize()).isEqualTo(15);
+        assertThat(new FlatHttpHeaders(headers).limits()).isEqualTo(headers.limits());
+    }
+
+    @Test
+    void should_leave_headers_unchanged_when_bulk_changes_exceed_limits() {
+        FlatHttpHeaders headers = new FlatHttpHeaders(new HttpHeadersLimits(4, 40, 10));
+        headers.add("A", "1");
+        headers.add("B", "2");
+        FlatHttpHeaders tooLongValue = new FlatHttpHeaders();
+        tooLongValue.add("C", "1");
+        tooLongValue.add("D", "12345678901");
+        HttpHeaders tooManyEntries = new HttpHeaders();
+        tooManyEntries.add("C", "1");
+        tooManyEntries.add("D", "1");
+        tooManyEntries.add("E", "1");
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("C", "1");
+        values.put("A", "12345678901");
+        Map<String, List<String>> lists = new LinkedHashMap<>();
+        lists.put("C", List.of("1"));
+        lists.put("D", List.of("1", "2", "3"));
+
+        assertThatThrownBy(() -> headers.addAll(tooLongValue)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> headers.addAll(tooManyEntries)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> headers.setAll(values)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> headers.putAll(lists)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(headers.toSingleValueMap()).isEqualTo(Map.of("A", "1", "B", "2"));
+        assertThat(headers.entryCount()).isEqualTo(2);
+        assertThat(headers.byteSize()).isEqualTo(4);
+
+        headers.add("C", "1");
+        headers.add("D", "1");
+        assertThat(headers.keySet()).containsExactly("A", "B", "C", "D");
+        assertThat(headers.entryCount()).isEqualTo(4);
+    }
+
+    @Test
+    void should_return_live_values_from_compute_if_absent() {
+        FlatHttpHeaders headers = new FlatHttpHeaders();
+
+        headers.computeIfAbsent("X-A", name -> new ArrayList<>()).add("v1");
+        headers.computeIfAbsent("x-a", name -> new ArrayList<>()).add("v2");
+
+        assertThat(headers.get("X-A")).containsExactly("v1", "v2");
+        assertThat(headers.entryCount()).isEqualTo(2);
+    }
+
+    @Test
+    void should_return_live_values_from_compute_if_present() {
+        FlatHttpHeaders headers = new FlatHttpHeaders();
+        headers.add("X-A", "v1");
+
+        headers.computeIfPresent("x-a", (name, values) -> new ArrayList<>(values)).add("v2");
+
+        assertThat(headers.get("X-A")).containsExactly("v1", "v2");
+        assertThat(headers.computeIfPresent("X-B", (name, values) -> values)).isNull();
+        assertThat(headers.computeIfPresent("X-A", (name, values) -> null)).isNull();
+        assertThat(headers).isEmpty();
+        assertThat(headers.entryCount()).isZero();
+    }
+
+    @Test
+    void should_return_live_values_from_compute() {
+        FlatHttpHeaders headers = new FlatHttpHeaders();
+
+        headers.compute("X-A", (name, values) -> values == null ? List.of("v1") : values).add("v2");
+
+        assertThat(headers.get("X-A")).containsExactly("v1", "v2");
+        assertThat(headers.compute("X-A", (name, values) -> null)).isNull();
+        assertThat(headers.containsKey("X-A")).isFalse();
+    }
+
+    @Test
+    void should_return_live_values_from_merge() {
+        FlatHttpHeaders headers = new FlatHttpHeaders();
+
+        headers.merge("X-A", List.of("v1"), (previous, added) -> added).add("v2");
+        headers.merge("X-A", List.of("v3"), (previous, added) -> List.of(previous.get(1), added.get(0))).add("v4");
+
+        assertThat(headers.get("X-A")).containsExactly("v2", "v3", "v4");
+        assertThat(headers.entryCount()).isEqualTo(3);
+        assertThat(headers.merge("X-A", List.of(), (previous, added) -> null)).isNull();
+        assertThat(headers).isEmpty();
+    }
+}
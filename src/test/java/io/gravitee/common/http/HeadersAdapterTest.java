@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.vertx.core.MultiMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class HeadersAdapterTest {
+
+    static Stream<HeadersAdapter> adapters() {
+        return Stream.of(
+            new NettyHttpHeadersAdapter(new DefaultHttpHeaders()),
+            new VertxHttpHeadersAdapter(MultiMap.caseInsensitiveMultiMap())
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("adapters")
+    void should_read_headers_ignoring_case(HeadersAdapter headers) {
+        headers.add("Content-Type", "application/json");
+        headers.add("X-Forwarded-For", "10.0.0.1");
+        headers.add("x-forwarded-for", "10.0.0.2");
+
+        assertThat(headers).hasSize(2);
+        assertThat(headers.getFirst("content-type")).isEqualTo("application/json");
+        assertThat(headers.getFirst(HttpHeaderNames.CONTENT_TYPE)).isEqualTo("application/json");
+        assertThat(headers.get("X-FORWARDED-FOR")).containsExactly("10.0.0.1", "10.0.0.2");
+        assertThat(headers.containsAllKeys(List.of("CONTENT-TYPE", "x-forwarded-for"))).isTrue();
+        assertThat(headers.containsKey("Host")).isFalse();
+        assertThat(headers.get("Host")).isNull();
+    }
+
+    @ParameterizedTest
+    @MethodSource("adapters")
+    void should_iterate_headers_differing_by_case_once(HeadersAdapter headers) {
+        headers.add("X-Forwarded-For", "10.0.0.1");
+        headers.add("Accept", "text/html");
+        headers.add("x-forwarded-for", "10.0.0.2");
+
+        Map<String, List<String>> entries = new LinkedHashMap<>();
+        headers.forEach(entries::put);
+
+        assertThat(entries).containsOnlyKeys("X-Forwarded-For", "Accept");
+        assertThat(entries.get("X-Forwarded-For")).containsExactly("10.0.0.1", "10.0.0.2");
+        assertThat(headers.entrySet()).hasSize(2);
+        assertThat(headers.toSingleValueMap()).isEqualTo(Map.of("X-Forwarded-For", "10.0.0.1", "Accept", "text/html"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("adapters")
+    void should_write_through_to_adapted_headers(HeadersAdapter headers) {
+        headers.set("Accept", "text/html");
+        headers.get("Accept").add("application/json");
+        headers.put("Host", List.of("api.gravitee.io"));
+        headers.entrySet().removeIf(entry -> entry.getKey().equalsIgnoreCase("Host"));
+
+        assertThat(headers.toSingleValueMap()).isEqualTo(Map.of("Accept", "text/html"));
+        assertThat(headers.get("Accept")).containsExactly("text/html", "application/json");
+
+        headers.remove("ACCEPT");
+        assertThat(headers).isEmpty();
+    }
+
+    @ParameterizedTest
+    @MethodSource("adapters")
+    void should_be_equal_to_headers_with_same_content(HeadersAdapter headers) {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.add("Accept", "text/html");
+        httpHeaders.add("Accept", "application/json");
+        httpHeaders.add("Host", "api.gravitee.io");
+
+        httpHeaders.forEach(headers::put);
+
+        assertThat(headers).isEqualTo(httpHeaders);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class HttpHeadersSnapshotTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = { 3, 30 })
+    void should_read_headers_ignoring_case(int count) {
+        HttpHeaders headers = new HttpHeaders();
+        for (int i = 0; i < count; i++) {
+            headers.add("X-Header-" + i, "value" + i);
+        }
+        headers.add("x-header-1", "other");
+
+        HttpHeadersSnapshot snapshot = HttpHeadersSnapshot.of(headers);
+
+        assertThat(snapshot).hasSize(count).isEqualTo(headers);
+        assertThat(snapshot.getFirst("X-HEADER-1")).isEqualTo("value1");
+        assertThat(snapshot.get("x-header-1")).containsExactly("value1", "other");
+        assertThat(snapshot.get("X-Header-2")).containsExactly("value2");
+        assertThat(snapshot.containsKey("x-header-" + (count - 1))).isTrue();
+        assertThat(snapshot.get("X-Unknown")).isNull();
+        assertThat(snapshot.containsAllKeys(List.of("x-header-0", "X-HEADER-2"))).isTrue();
+        assertThat(snapshot.containsAllKeys(List.of("x-header-0", "X-Unknown"))).isFalse();
+    }
+
+    @Test
+    void should_keep_headers_order() {
+        HttpHeaders headers = new FlatHttpHeaders();
+        headers.add("Host", "api.gravitee.io");
+        headers.add("Accept", "text/html");
+        headers.add("Accept", "application/json");
+        headers.add("Cookie", "session=1");
+
+        HttpHeadersSnapshot snapshot = HttpHeadersSnapshot.of(headers);
+
+        assertThat(snapshot.keySet()).containsExactly("Host", "Accept", "Cookie");
+        assertThat(snapshot.toSingleValueMap())
+            .containsExactly(entry("Host", "api.gravitee.io"), entry("Accept", "text/html"), entry("Cookie", "session=1"));
+    }
+
+    @Test
+    void should_not_be_affected_by_changes_of_the_headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Accept", "text/html");
+        HttpHeadersSnapshot snapshot = HttpHeadersSnapshot.of(headers);
+
+        headers.add("Accept", "application/json");
+        headers.set("Host", "api.gravitee.io");
+
+        assertThat(snapshot.get("Accept")).containsExactly("text/html");
+        assertThat(snapshot.containsKey("Host")).isFalse();
+    }
+
+    @Test
+    void should_be_immutable() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Accept", "text/html");
+        HttpHeadersSnapshot snapshot = HttpHeadersSnapshot.of(headers);
+
+        assertThatThrownBy(() -> snapshot.add("Accept", "application/json")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> snapshot.remove("Accept")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> snapshot.get("Accept").add("application/json")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(snapshot::clear).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void should_skip_headers_without_value() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.put("Accept", List.of());
+
+        assertThat(HttpHeadersSnapshot.of(headers)).isSameAs(HttpHeadersSnapshot.EMPTY);
+    }
+}
@@ -19,6 +19,7 @@ import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.List;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EmptySource;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -62,4 +63,92 @@ public class HttpHeadersTest {
 
         assertThat(httpHeaders.containsAllKeys(headers)).isTrue();
     }
+
+    @Test
+    public void shouldParseContentLengthAgainWhenChanged() {
+        final HttpHeaders httpHeaders = new HttpHeaders();
+        assertThat(httpHeaders.contentLength()).isEqualTo(-1);
+
+        httpHeaders.contentLength(42);
+        assertThat(httpHeaders.contentLength()).isEqualTo(42);
+        assertThat(httpHeaders.contentLength()).isEqualTo(42);
+
+        httpHeaders.set(HttpHeaders.CONTENT_LENGTH, "1024");
+        assertThat(httpHeaders.contentLength()).isEqualTo(1024);
+
+        httpHeaders.remove(HttpHeaders.CONTENT_LENGTH);
+        assertThat(httpHeaders.contentLength()).isEqualTo(-1);
+    }
+
+    @Test
+    public void shouldCacheContentTypeUntilChanged() {
+        final HttpHeaders httpHeaders = new FlatHttpHeaders();
+        httpHeaders.contentType("application/json;charset=UTF-8");
+
+        final MediaType contentType = httpHeaders.getContentType();
+        assertThat(contentType.toMediaString()).isEqualTo("application/json");
+        assertThat(httpHeaders.getContentType()).isSameAs(contentType);
+
+        httpHeaders.contentType("text/plain");
+        assertThat(httpHeaders.getContentType().toMediaString()).isEqualTo("text/plain");
+
+        httpHeaders.remove("content-type");
+        assertThat(httpHeaders.getContentType()).isNull();
+    }
+
+    @Test
+    public void shouldReturnMutableCopyOfCachedAccept() {
+        final HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.add(HttpHeaders.ACCEPT, "text/html, application/json;q=0.9");
+
+        final List<MediaType> accept = httpHeaders.getAccept();
+        assertThat(accept).extracting(MediaType::toMediaString).containsExactly("text/html", "application/json");
+        accept.clear();
+        assertThat(httpHeaders.getAccept()).hasSize(2);
+
+        httpHeaders.add(HttpHeaders.ACCEPT, "*/*;q=0.1");
+        assertThat(httpHeaders.getAccept())
+            .extracting(MediaType::toMediaString)
+            .containsExactly("text/html", "application/json", "*/*");
+    }
+
+    @Test
+    public void shouldRemoveAllHeadersCaseInsensitive() {
+        final HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.set("X-Header", "value");
+        httpHeaders.set("X-Another-header", "value");
+        httpHeaders.set("Host", "value");
+
+        assertThat(httpHeaders.removeAll(asList("x-header", "HOST"))).isTrue();
+        assertThat(httpHeaders.removeAll(asList("x-header", "X-Unknown"))).isFalse();
+        assertThat(httpHeaders.keySet()).containsExactly("X-Another-header");
+    }
+
+    @Test
+    public void shouldRetainOnlyHeadersCaseInsensitive() {
+        final HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.set("X-Header", "value");
+        httpHeaders.set("X-Another-header", "value");
+        httpHeaders.set("Host", "value");
+
+        assertThat(httpHeaders.retainOnly(asList("x-header", "HOST"))).isTrue();
+        assertThat(httpHeaders.retainOnly(asList("x-header", "HOST"))).isFalse();
+        assertThat(httpHeaders.keySet()).containsExactly("X-Header", "Host");
+        assertThat(httpHeaders.containsKey("x-another-header")).isFalse();
+    }
+
+    @Test
+    public void shouldAddAllHeaders() {
+        final HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.add("Accept", "text/html");
+        final HttpHeaders other = new FlatHttpHeaders();
+        other.add("accept", "application/json");
+        other.add("Host", "api.gravitee.io");
+
+        httpHeaders.addAll(other);
+
+        assertThat(httpHeaders.get("Accept")).containsExactly("text/html", "application/json");
+        assertThat(httpHeaders.getFirst("host")).isEqualTo("api.gravitee.io");
+        assertThat(other.get("Accept")).containsExactly("application/json");
+    }
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class KnownHeaderNamesTest {
+
+    @Test
+    void should_recognize_constants_by_identity() {
+        int ordinal = KnownHeaderNames.identityOrdinalOf(HttpHeaders.CONTENT_TYPE);
+
+        assertThat(ordinal).isNotEqualTo(KnownHeaderNames.UNKNOWN);
+        assertThat(KnownHeaderNames.name(ordinal)).isSameAs(HttpHeaders.CONTENT_TYPE);
+        assertThat(KnownHeaderNames.lowerCaseName(ordinal)).isEqualTo("content-type");
+        assertThat(KnownHeaderNames.identityOrdinalOf(new String(HttpHeaders.CONTENT_TYPE))).isEqualTo(KnownHeaderNames.UNKNOWN);
+    }
+
+    @Test
+    void should_recognize_names_ignoring_case() {
+        int ordinal = KnownHeaderNames.identityOrdinalOf(HttpHeaders.X_FORWARDED_FOR);
+
+        assertThat(KnownHeaderNames.ordinalOf("x-forwarded-for")).isEqualTo(ordinal);
+        assertThat(KnownHeaderNames.ordinalOf("X-FORWARDED-FOR")).isEqualTo(ordinal);
+        assertThat(KnownHeaderNames.ordinalOf("X-Forwarded-Fox")).isEqualTo(KnownHeaderNames.UNKNOWN);
+    }
+
+    @Test
+    void should_read_known_headers_of_flat_headers() {
+        FlatHttpHeaders headers = new FlatHttpHeaders();
+        headers.add("content-type", "application/json");
+        headers.add("X-Custom", "value");
+        assertThat(headers.getFirst(HttpHeaders.CONTENT_TYPE)).isEqualTo("application/json");
+
+        headers.remove("x-custom");
+        headers.add("HOST", "api.gravitee.io");
+
+        assertThat(headers.getFirst(HttpHeaders.HOST)).isEqualTo("api.gravitee.io");
+        assertThat(headers.getFirst(HttpHeaders.CONTENT_TYPE)).isEqualTo("application/json");
+        assertThat(headers.containsKey(HttpHeaders.ACCEPT)).isFalse();
+    }
+}
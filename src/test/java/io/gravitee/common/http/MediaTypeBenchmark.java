@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Compares the {@link MediaType} parser, with and without its cache, to the Spring {@link MimeTypeUtils} it replaces,
+ * and the {@link MediaTypeNegotiator} to sorting the accepted media types by quality.
+ *
+ * @author GraviteeSource Team
+ */
+@BenchmarkMode(Mode.Throughput)
+@Measurement(iterations = 5, time = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1)
+@Warmup(iterations = 2, time = 3)
+@State(Scope.Benchmark)
+public class MediaTypeBenchmark {
+
+    @Param(
+        {
+            "application/json",
+            "application/json; charset=UTF-8",
+            "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,*/*;q=0.8",
+        }
+    )
+    public String value;
+
+    private final MediaTypeNegotiator negotiator = MediaTypeNegotiator.of(
+        MediaType.MEDIA_APPLICATION_JSON,
+        MediaType.MEDIA_APPLICATION_XML,
+        MediaType.MEDIA_TEXT_PLAIN
+    );
+
+    @Benchmark
+    public void spring(Blackhole blackhole) {
+        for (String mediaType : MimeTypeUtils.tokenize(value)) {
+            blackhole.consume(MimeTypeUtils.parseMimeType(mediaType));
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        blackhole.consume(MediaTypeParser.parseList(value));
+    }
+
+    @Benchmark
+    public void parseCached(Blackhole blackhole) {
+        blackhole.consume(MediaType.parseMediaTypes(value));
+    }
+
+    @Benchmark
+    public void negotiateBySorting(Blackhole blackhole) {
+        List<MediaType> accepted = MediaType.parseMediaTypes(value);
+        MediaType.sortByQualityValue(accepted);
+        for (MediaType mediaType : accepted) {
+            if (mediaType.isWildcardType()) {
+                blackhole.consume(MediaType.MEDIA_APPLICATION_JSON);
+                return;
+            }
+            for (MediaType producible : negotiator.producible()) {
+                if (producible.equals(mediaType)) {
+                    blackhole.consume(producible);
+                    return;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void negotiate(Blackhole blackhole) {
+        blackhole.consume(negotiator.negotiate(value));
+    }
+
+    @Benchmark
+    public void negotiateUncached(Blackhole blackhole) {
+        blackhole.consume(negotiator.bestMatch(MediaTypeParser.parseList(value)));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class MediaTypeNegotiatorTest {
+
+    private static final MediaType VND_JSON = new MediaType("application", "vnd.gravitee+json");
+
+    private final MediaTypeNegotiator negotiator = MediaTypeNegotiator.of(
+        MediaType.MEDIA_APPLICATION_JSON,
+        MediaType.MEDIA_APPLICATION_XML,
+        VND_JSON
+    );
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    void should_select_first_producible_without_accept(String accept) {
+        assertThat(negotiator.negotiate(accept)).isSameAs(MediaType.MEDIA_APPLICATION_JSON);
+    }
+
+    @ParameterizedTest
+    @CsvSource(
+        delimiter = '|',
+        value = {
+            "*/*                                                              | application/json",
+            "application/xml                                                  | application/xml",
+            "text/html, application/xhtml+xml, application/xml;q=0.9, */*;q=0.8 | application/xml",
+            "application/*;q=0.5, application/xml                             | application/xml",
+            "application/json;q=0, */*                                        | application/xml",
+            "application/*+json;q=0.7, application/json;q=0.2                 | application/vnd.gravitee+json",
+            "*/*;q=invalid, application/xml;q=0.1                             | application/xml",
+            "APPLICATION/XML                                                  | application/xml",
+        }
+    )
+    void should_select_best_producible(String accept, String expected) {
+        assertThat(negotiator.negotiate(accept).toMediaString()).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = { "text/html", "application/*;q=0", "invalid" })
+    void should_return_null_when_nothing_is_acceptable(String accept) {
+        assertThat(negotiator.negotiate(accept)).isNull();
+    }
+
+    @Test
+    void should_prefer_first_producible_on_equal_quality() {
+        assertThat(negotiator.negotiate("application/xml, application/json")).isSameAs(MediaType.MEDIA_APPLICATION_JSON);
+    }
+
+    @Test
+    void should_negotiate_multiple_accept_headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.ACCEPT, "text/html");
+        headers.add(HttpHeaders.ACCEPT, "application/xml;q=0.5");
+
+        assertThat(negotiator.negotiate(headers)).isSameAs(MediaType.MEDIA_APPLICATION_XML);
+        assertThat(negotiator.negotiate(List.of("text/html"))).isNull();
+    }
+
+    @Test
+    void should_return_cached_result() {
+        String accept = "application/xml;q=0.9, application/json;q=0.8";
+
+        assertThat(negotiator.negotiate(accept)).isSameAs(MediaType.MEDIA_APPLICATION_XML);
+        assertThat(negotiator.negotiate(accept)).isSameAs(MediaType.MEDIA_APPLICATION_XML);
+    }
+
+    @Test
+    void should_not_accept_wildcard_producible() {
+        assertThatThrownBy(() -> MediaTypeNegotiator.of(MediaType.MEDIA_ALL)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MediaTypeNegotiator.of(List.of())).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -17,8 +17,10 @@ package io.gravitee.common.http;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -79,4 +81,95 @@ public class MediaTypeTest {
         assertEquals(0.9d, types.get(2).getQualityFactor(), 0.0d);
         assertEquals(0.8d, types.get(3).getQualityFactor(), 0.0d);
     }
+
+    @Test
+    public void shouldParseParameters() {
+        MediaType type = MediaType.parseMediaType(" Application/JSON ; charset=UTF-8; Level=\"1;2\"");
+        assertNotNull(type);
+        assertEquals("application", type.getType());
+        assertEquals("json", type.getSubtype());
+        assertEquals("UTF-8", type.getParameter("charset"));
+        assertEquals("\"1;2\"", type.getParameter("level"));
+        assertEquals(StandardCharsets.UTF_8, type.getCharset());
+    }
+
+    @Test
+    public void shouldParseWildcard() {
+        assertEquals(MediaType.MEDIA_ALL, MediaType.parseMediaType("*"));
+        assertEquals(MediaType.MEDIA_ALL, MediaType.parseMediaType("*/*"));
+    }
+
+    @Test
+    public void shouldNotParseInvalid() {
+        assertNull(MediaType.parseMediaType("text"));
+        assertNull(MediaType.parseMediaType("text/"));
+        assertNull(MediaType.parseMediaType("/json"));
+        assertNull(MediaType.parseMediaType("*/json"));
+        assertNull(MediaType.parseMediaType("te xt/html"));
+        assertNull(MediaType.parseMediaType("text/html;charset=unknown"));
+        assertNull(MediaType.parseMediaType("text/html;level="));
+        assertNull(MediaType.parseMediaType("text/html;=1"));
+        assertNull(MediaType.parseMediaType("text/html;level=a b"));
+    }
+
+    @Test
+    public void shouldParseMultipleWithQuotedComma() {
+        List<MediaType> types = MediaType.parseMediaTypes("text/plain;format=\"a,b\", , application/json, invalid");
+        assertEquals(3, types.size());
+        assertEquals("\"a,b\"", types.get(0).getParameter("format"));
+        assertEquals(MediaType.MEDIA_APPLICATION_JSON, types.get(1));
+        assertNull(types.get(2));
+    }
+
+    @Test
+    public void shouldReturnModifiableListFromCache() {
+        List<MediaType> types = MediaType.parseMediaTypes("text/html, application/json");
+        types.clear();
+        assertEquals(2, MediaType.parseMediaTypes("text/html, application/json").size());
+    }
+
+    @Test
+    public void shouldCacheParsedMediaType() {
+        assertSame(MediaType.parseMediaType("text/csv;charset=utf-8"), MediaType.parseMediaType("text/csv;charset=utf-8"));
+        assertNotSame(MediaType.parseMediaType("multipart/form-data;boundary=x"), MediaType.parseMediaType("multipart/form-data;boundary=x"));
+    }
+
+    @Test
+    public void shouldPrecomputeQualityFactor() {
+        MediaType type = MediaType.parseMediaType("text/html;q=\"0.4\"");
+        assertEquals(0.4d, type.getQualityFactor(), 0.0d);
+        assertEquals(1.0d, MediaType.MEDIA_TEXT_HTML.getQualityFactor(), 0.0d);
+    }
+
+    @Test
+    public void shouldFailOnInvalidQualityFactor() {
+        MediaType type = MediaType.parseMediaType("text/html;q=high");
+        assertNotNull(type);
+        assertThrows(NumberFormatException.class, type::getQualityFactor);
+    }
+
+    @Test
+    public void shouldLowerCaseAndInternTypes() {
+        MediaType type = new MediaType("Application", "JSON");
+        assertSame(MediaType.MEDIA_APPLICATION_JSON.getType(), type.getType());
+        assertSame(MediaType.MEDIA_APPLICATION_JSON.getSubtype(), type.getSubtype());
+        assertEquals(MediaType.MEDIA_APPLICATION_JSON, type);
+        assertEquals("vnd.custom+json", new MediaType("application", "VND.Custom+JSON").getSubtype());
+    }
+
+    @Test
+    public void shouldPrecomputeWildcards() {
+        assertTrue(MediaType.MEDIA_ALL.isWildcardType());
+        assertTrue(MediaType.MEDIA_ALL.isWildcardSubtype());
+        assertTrue(new MediaType("application", "*+json").isWildcardSubtype());
+        assertTrue(MediaType.MEDIA_APPLICATION_JSON.isConcrete());
+    }
+
+    @Test
+    public void shouldResolveCharset() {
+        assertEquals(StandardCharsets.ISO_8859_1, MediaType.parseMediaType("text/plain;charset='iso-8859-1'").getCharset());
+        assertNull(MediaType.MEDIA_TEXT_PLAIN.getCharset());
+        MediaType unsupported = new MediaType("text", "plain", Map.of(MediaType.CHARSET_PARAMETER, "unknown"));
+        assertThrows(IllegalArgumentException.class, unsupported::getCharset);
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class BoundedCacheTest {
+
+    @Test
+    void should_compute_values_once() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10);
+        AtomicInteger computations = new AtomicInteger();
+
+        cache.computeIfAbsent("a", key -> computations.incrementAndGet());
+        cache.computeIfAbsent("a", key -> computations.incrementAndGet());
+
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(computations).hasValue(1);
+    }
+
+    @Test
+    void should_not_cache_null_values() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10);
+
+        assertThat(cache.computeIfAbsent("a", key -> null)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void should_evict_oldest_entries() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(3);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, i);
+        }
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.get(0)).isNull();
+        assertThat(cache.get(9)).isEqualTo(9);
+
+        cache.clear();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void should_evict_oldest_entries_over_maximum_weight() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, 10, (key, value) -> value.length());
+        cache.put("a", "1234");
+        cache.put("b", "1234");
+        cache.put("c", "1234");
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.weight()).isEqualTo(8);
+
+        cache.put("d", "12345678901");
+        assertThat(cache.get("d")).isNull();
+        assertThat(cache.weight()).isEqualTo(8);
+    }
+
+    @Test
+    void should_count_hits_and_misses() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+
+        cache.computeIfAbsent("a", key -> "value");
+        cache.computeIfAbsent("a", key -> "value");
+        cache.get("b");
+
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(2);
+    }
+}
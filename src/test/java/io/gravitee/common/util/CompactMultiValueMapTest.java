@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class CompactMultiValueMapTest {
+
+    @Test
+    void should_add_values_in_insertion_order() {
+        CompactMultiValueMap<String, String> map = new CompactMultiValueMap<>();
+        map.add("b", "1");
+        map.add("a", "1");
+        map.add("b", "2");
+        map.add("b", "3");
+
+        assertThat(map.keySet()).containsExactly("b", "a");
+        assertThat(map.get("b")).containsExactly("1", "2", "3");
+        assertThat(map.get("a")).containsExactly("1");
+        assertThat(map.getFirst("b")).isEqualTo("1");
+        assertThat(map.get("c")).isNull();
+        assertThat(map.getFirst("c")).isNull();
+    }
+
+    @Test
+    void should_support_null_values() {
+        CompactMultiValueMap<String, String> map = new CompactMultiValueMap<>();
+        map.add("flag", null);
+
+        assertThat(map.containsKey("flag")).isTrue();
+        assertThat(map.getFirst("flag")).isNull();
+        assertThat(map.get("flag")).containsExactly((String) null);
+    }
+
+    @Test
+    void should_return_live_values() {
+        CompactMultiValueMap<String, String> map = new CompactMultiValueMap<>();
+        map.add("a", "1");
+        map.get("a").add("2");
+        map.entrySet().iterator().next().getValue().add("3");
+
+        assertThat(map.get("a")).containsExactly("1", "2", "3");
+    }
+
+    @Test
+    void should_follow_values_added_after_read() {
+        CompactMultiValueMap<String, String> map = new CompactMultiValueMap<>();
+        map.add("a", "1");
+        List<String> first = map.get("a");
+        List<String> second = map.entrySet().iterator().next().getValue();
+
+        map.add("a", "2");
+        second.add("3");
+
+        assertThat(first).containsExactly("1", "2", "3");
+        assertThat(second).containsExactly("1", "2", "3");
+        assertThat(map.get("a")).containsExactly("1", "2", "3");
+    }
+
+    @Test
+    void should_detach_values_replaced_after_read() {
+        CompactMultiValueMap<String, String> map = new CompactMultiValueMap<>();
+        map.add("a", "1");
+        List<String> values = map.get("a");
+
+        map.set("a", "2");
+        values.add("3");
+
+        assertThat(values).containsExactly("1", "3");
+        assertThat(map.get("a")).containsExactly("2");
+    }
+
+    @Test
+    void should_not_modify_map_when_read() throws IOException {
+        CompactMultiValueMap<String, String> map = new CompactMultiValueMap<>();
+        map.add("a", "1");
+        map.add("b", null);
+        byte[] serialized = serialize(map);
+
+        assertThat(map.get("a")).containsExactly("1");
+        assertThat(map.entrySet()).extracting(Map.Entry::getValue).hasSize(2);
+        assertThat(map).isEqualTo(new CompactMultiValueMap<>(map));
+
+        assertThat(serialize(map)).isEqualTo(serialized);
+    }
+
+    @Test
+    void should_replace_values() {
+        CompactMultiValueMap<String, String> map = new CompactMultiValueMap<>();
+        map.add("a", "1");
+        map.add("a", "2");
+        map.set("a", "3");
+
+        List<String> values = new ArrayList<>(List.of("4", "5"));
+        assertThat(map.put("b", values)).isNull();
+        values.add("6");
+
+        assertThat(map.get("a")).containsExactly("3");
+        assertThat(map.get("b")).containsExactly("4", "5");
+        assertThat(map.remove("a")).containsExactly("3");
+        assertThat(map.toSingleValueMap()).isEqualTo(Map.of("b", "4"));
+    }
+
+    @Test
+    void should_be_equal_to_linked_multi_value_map() {
+        CompactMultiValueMap<String, String> compact = new CompactMultiValueMap<>();
+        LinkedMultiValueMap<String, String> linked = new LinkedMultiValueMap<>();
+        for (String[] entry : new String[][] { { "a", "1" }, { "b", null }, { "a", "2" } }) {
+            compact.add(entry[0], entry[1]);
+            linked.add(entry[0], entry[1]);
+        }
+
+        assertThat(compact).isEqualTo(linked);
+        assertThat(linked).isEqualTo(compact);
+        assertThat(compact).hasSameHashCodeAs(linked);
+        assertThat(compact).hasToString(linked.toString());
+        assertThat(compact.containsValue(Arrays.asList((String) null))).isTrue();
+    }
+
+    @Test
+    void should_copy_other_map() {
+        LinkedMultiValueMap<String, String> linked = new LinkedMultiValueMap<>();
+        linked.add("a", "1");
+        CompactMultiValueMap<String, String> copy = new CompactMultiValueMap<>(linked);
+        copy.add("a", "2");
+
+        assertThat(linked.get("a")).containsExactly("1");
+        assertThat(copy.get("a")).containsExactly("1", "2");
+        assertThat(copy.containsAllKeys(List.of("a"))).isTrue();
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+}
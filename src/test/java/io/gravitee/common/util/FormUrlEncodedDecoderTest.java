@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import io.gravitee.gateway.api.buffer.Buffer;
+import io.reactivex.rxjava3.core.Flowable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class FormUrlEncodedDecoderTest {
+
+    @Test
+    void should_decode_fields() {
+        MultiValueMap<String, String> fields = decode("name=John+Doe&city=Z%C3%BCrich&tag=a&tag=b&flag&empty=");
+
+        assertThat(fields.keySet()).containsExactly("name", "city", "tag", "flag", "empty");
+        assertThat(fields.getFirst("name")).isEqualTo("John Doe");
+        assertThat(fields.getFirst("city")).isEqualTo("Z\u00fcrich");
+        assertThat(fields.get("tag")).containsExactly("a", "b");
+        assertThat(fields.get("flag")).isEqualTo(Arrays.asList((String) null));
+        assertThat(fields.getFirst("empty")).isEmpty();
+    }
+
+    @Test
+    void should_decode_escapes_split_across_chunks() {
+        Flowable<Buffer> body = Flowable.just(
+            Buffer.buffer("city=Z%"),
+            Buffer.buffer("C"),
+            Buffer.buffer("3%BC"),
+            Buffer.buffer("rich")
+        );
+
+        FormUrlEncodedDecoder.decode(body, 10, 1024)
+            .test()
+            .assertComplete()
+            .assertValue(fields -> fields.getFirst("city").equals("Z\u00fcrich"));
+    }
+
+    @Test
+    void should_keep_invalid_escapes_and_skip_empty_fields() {
+        MultiValueMap<String, String> fields = decode("a=%zz&&b=100%&c=1=2");
+
+        assertThat(fields.toSingleValueMap()).containsExactly(entry("a", "%zz"), entry("b", "100%"), entry("c", "1=2"));
+    }
+
+    @Test
+    void should_skip_leading_equal_signs() {
+        MultiValueMap<String, String> fields = decode("=x&=&==y=1&a==b");
+
+        assertThat(fields.keySet()).containsExactly("x", "y", "a");
+        assertThat(fields.get("x")).isEqualTo(Arrays.asList((String) null));
+        assertThat(fields.getFirst("y")).isEqualTo("1");
+        assertThat(fields.getFirst("a")).isEqualTo("=b");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "=x", "=", "==", "=x=1&a=", "a=1&==b", "x&y=&=z", "a=1&=" })
+    void should_split_fields_as_query_parameters(String body) {
+        assertThat(decode(body)).isEqualTo(URIUtils.parameters("?" + body, true));
+    }
+
+    @Test
+    void should_fail_when_too_many_fields() {
+        FormUrlEncodedDecoder.decode(Flowable.just(Buffer.buffer("a=1&b=2&c=3")), 2, 1024)
+            .test()
+            .assertError(IllegalArgumentException.class);
+    }
+
+    @Test
+    void should_fail_when_body_is_too_large() {
+        FormUrlEncodedDecoder.decode(Flowable.just(Buffer.buffer("a=1&"), Buffer.buffer("b=2")), 10, 5)
+            .test()
+            .assertError(IllegalArgumentException.class);
+    }
+
+    @Test
+    void should_decode_empty_body() {
+        FormUrlEncodedDecoder.decode(Flowable.empty(), 10, 1024).test().assertValue(MultiValueMap::isEmpty);
+        assertThat(decode("")).isEmpty();
+    }
+
+    private static MultiValueMap<String, String> decode(String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        return new FormUrlEncodedDecoder(10, 1024).offer(bytes, 0, bytes.length).end();
+    }
+}
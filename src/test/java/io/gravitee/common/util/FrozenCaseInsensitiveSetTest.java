@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class FrozenCaseInsensitiveSetTest {
+
+    @Test
+    void should_contain_elements_ignoring_case() {
+        FrozenCaseInsensitiveSet set = FrozenCaseInsensitiveSet.of("Content-Type", "X-Request-Id", "Host");
+
+        assertThat(set.contains("content-type")).isTrue();
+        assertThat(set.contains("X-REQUEST-ID")).isTrue();
+        assertThat(set.contains((Object) "hOST")).isTrue();
+        assertThat(set.contains("Content-Length")).isFalse();
+        assertThat(set.contains("")).isFalse();
+    }
+
+    @Test
+    void should_contain_non_ascii_elements_ignoring_case() {
+        FrozenCaseInsensitiveSet set = FrozenCaseInsensitiveSet.of("\u00c9clair", "\u00e9CLAIR", "Host");
+
+        assertThat(set).containsExactly("\u00c9clair", "Host");
+        assertThat(set.contains("\u00e9clair")).isTrue();
+        assertThat(set.contains("\u00c9CLAIR")).isTrue();
+        assertThat(set.contains("eclair")).isFalse();
+    }
+
+    @Test
+    void should_keep_first_element_among_those_equal_ignoring_case() {
+        FrozenCaseInsensitiveSet set = FrozenCaseInsensitiveSet.of("Host", "Accept", "HOST", "accept");
+
+        assertThat(set).hasSize(2).containsExactly("Host", "Accept");
+    }
+
+    @Test
+    void should_contain_elements_with_colliding_hashes() {
+        // "Aa" and "BB" have the same hash code, so no collision-free seed exists
+        FrozenCaseInsensitiveSet set = FrozenCaseInsensitiveSet.of("Aa", "BB", "C");
+
+        assertThat(set.contains("aA")).isTrue();
+        assertThat(set.contains("bb")).isTrue();
+        assertThat(set.contains("c")).isTrue();
+        assertThat(set.contains("Ab")).isFalse();
+    }
+
+    @Test
+    void should_contain_all_elements_of_large_set() {
+        List<String> elements = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            elements.add("X-Header-" + i);
+        }
+
+        FrozenCaseInsensitiveSet set = FrozenCaseInsensitiveSet.of(elements);
+
+        assertThat(set).hasSize(1000);
+        for (String element : elements) {
+            assertThat(set.contains(element.toUpperCase())).isTrue();
+        }
+        assertThat(set.contains("X-Header-1000")).isFalse();
+    }
+
+    @Test
+    void should_be_empty() {
+        FrozenCaseInsensitiveSet set = FrozenCaseInsensitiveSet.of();
+
+        assertThat(set).isEmpty();
+        assertThat(set.contains("Host")).isFalse();
+    }
+
+    @Test
+    void should_not_contain_other_types() {
+        FrozenCaseInsensitiveSet set = FrozenCaseInsensitiveSet.of("1");
+
+        assertThat(set.contains((Object) 1)).isFalse();
+        assertThat(set.contains((Object) null)).isFalse();
+    }
+
+    @Test
+    void should_be_equal_to_set_with_same_elements() {
+        assertThat(FrozenCaseInsensitiveSet.of("Host", "Accept")).isEqualTo(Set.of("Accept", "Host"));
+    }
+
+    @Test
+    void should_be_immutable() {
+        FrozenCaseInsensitiveSet set = FrozenCaseInsensitiveSet.of("Host");
+
+        assertThatThrownBy(() -> set.add("Accept")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> set.remove("Host")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(set::clear).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author GraviteeSource Team
+ */
+class LatencyHistogramTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = { 0, 1, 15, 16, 17, 1023, 1024, 123_456_789, Long.MAX_VALUE })
+    void should_map_value_to_bucket_containing_it(long value) {
+        int index = LatencyHistogram.indexOf(value);
+
+        assertThat(LatencyHistogram.highestEquivalentValue(index)).isGreaterThanOrEqualTo(value);
+        if (index > 0) {
+            assertThat(LatencyHistogram.highestEquivalentValue(index - 1)).isLessThan(value);
+        }
+    }
+
+    @Test
+    void should_compute_percentiles_within_precision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1_000);
+        }
+
+        assertThat(histogram.count()).isEqualTo(10_000);
+        assertThat(histogram.max()).isEqualTo(10_000_000);
+        assertThat(histogram.mean()).isEqualTo(5_000_500);
+        assertThat((double) histogram.valueAtPercentile(50)).isCloseTo(5_000_000, within(5_000_000 * 0.07));
+        assertThat((double) histogram.valueAtPercentile(99)).isCloseTo(9_900_000, within(9_900_000 * 0.07));
+        assertThat(histogram.valueAtPercentile(100)).isEqualTo(10_000_000);
+    }
+
+    @Test
+    void should_be_empty_after_reset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.reset();
+
+        assertThat(histogram.count()).isZero();
+        assertThat(histogram.valueAtPercentile(50)).isZero();
+    }
+}
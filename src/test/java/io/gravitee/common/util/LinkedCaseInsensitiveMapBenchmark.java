@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the in-place ASCII case-insensitive lookups of {@link LinkedCaseInsensitiveMap} with the former strategy
+ * which lower-cased the key on each access. Run with {@code -prof gc} to compare the allocation rates.
+ *
+ * @author GraviteeSource Team
+ */
+@BenchmarkMode(Mode.Throughput)
+@Measurement(iterations = 5, time = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1)
+@Warmup(iterations = 2, time = 3)
+@State(Scope.Benchmark)
+public class LinkedCaseInsensitiveMapBenchmark {
+
+    private static final String[] HEADERS = {
+        "Host",
+        "User-Agent",
+        "Accept",
+        "Accept-Language",
+        "Accept-Encoding",
+        "Connection",
+        "Cookie",
+        "Cache-Control",
+        "Authorization",
+        "X-Forwarded-For",
+        "X-Request-Id",
+        "Content-Type",
+        "Content-Length",
+    };
+
+    private static final String[] LOOKUPS = {
+        "host",
+        "Authorization",
+        "CONTENT-TYPE",
+        "content-length",
+        "X-Forwarded-For",
+        "X-Gravitee-Api-Key",
+        "x-gravitee-transaction-id",
+    };
+
+    private final LinkedCaseInsensitiveMap<String> map = new LinkedCaseInsensitiveMap<>();
+
+    private final Map<String, String> lowerCasedKeys = new HashMap<>();
+    private final Map<String, String> lowerCasedMap = new LinkedHashMap<>();
+
+    @Setup
+    public void setup() {
+        for (String header : HEADERS) {
+            map.put(header, header);
+            lowerCasedKeys.put(header.toLowerCase(Locale.ROOT), header);
+            lowerCasedMap.put(header, header);
+        }
+    }
+
+    @Benchmark
+    public void benchGet(Blackhole blackhole) {
+        for (String lookup : LOOKUPS) {
+            blackhole.consume(map.get(lookup));
+        }
+    }
+
+    @Benchmark
+    public void benchGetLowerCased(Blackhole blackhole) {
+        for (String lookup : LOOKUPS) {
+            blackhole.consume(lowerCasedMap.get(lowerCasedKeys.get(lookup.toLowerCase(Locale.ROOT))));
+        }
+    }
+
+    @Benchmark
+    public LinkedCaseInsensitiveMap<String> benchPut() {
+        LinkedCaseInsensitiveMap<String> headers = new LinkedCaseInsensitiveMap<>();
+        for (String header : HEADERS) {
+            headers.put(header, header);
+        }
+        return headers;
+    }
+
+    @Benchmark
+    public Map<String, String> benchPutLowerCased() {
+        Map<String, String> keys = new HashMap<>();
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String header : HEADERS) {
+            keys.put(header.toLowerCase(Locale.ROOT), header);
+            headers.put(header, header);
+        }
+        return headers;
+    }
+}
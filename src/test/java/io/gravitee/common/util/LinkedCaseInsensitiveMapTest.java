@@ -15,6 +15,12 @@
  */
 package io.gravitee.common.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Locale;
+import java.util.Set;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -101,4 +107,151 @@ public class LinkedCaseInsensitiveMapTest {
         Assertions.assertEquals("kbis", map.get("KEYUP"));
         Assertions.assertEquals("kbis", map.get("keydown"));
     }
+
+    @Test
+    public void putShouldKeepLastKeyCasing() {
+        LinkedCaseInsensitiveMap<String> map = new LinkedCaseInsensitiveMap<>();
+        map.put("content-type", "text/plain");
+        map.put("Content-Type", "application/json");
+
+        Assertions.assertEquals(1, map.size());
+        Assertions.assertEquals("Content-Type", map.keySet().iterator().next());
+        Assertions.assertEquals("application/json", map.get("CONTENT-TYPE"));
+    }
+
+    @Test
+    public void removeShouldBeCaseInsensitive() {
+        LinkedCaseInsensitiveMap<Integer> map = new LinkedCaseInsensitiveMap<>(2);
+        for (int i = 0; i < 100; i++) {
+            map.put("X-Header-" + i, i);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            Assertions.assertEquals(i, map.remove("x-header-" + i));
+        }
+
+        Assertions.assertEquals(50, map.size());
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(i % 2 != 0, map.containsKey("X-HEADER-" + i));
+        }
+    }
+
+    @Test
+    public void computeIfAbsentShouldNotRegisterKeyWithoutValue() {
+        LinkedCaseInsensitiveMap<String> map = new LinkedCaseInsensitiveMap<>();
+
+        Assertions.assertNull(map.computeIfAbsent("KEY", key -> null));
+        Assertions.assertFalse(map.containsKey("key"));
+        Assertions.assertNull(map.computeIfPresent("key", (key, v) -> v));
+        Assertions.assertFalse(map.containsKey("key"));
+        Assertions.assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void insensitiveKeySetShouldContainLowerCaseKeys() {
+        LinkedCaseInsensitiveMap<String> map = new LinkedCaseInsensitiveMap<>();
+        map.put("KEYUP", "k");
+        map.put("keydown", "k");
+
+        Assertions.assertEquals(Set.of("keyup", "keydown"), map.insensitiveKeySet());
+    }
+
+    @Test
+    public void insensitiveKeySetShouldReflectChanges() {
+        LinkedCaseInsensitiveMap<String> map = new LinkedCaseInsensitiveMap<>();
+        Set<String> keys = map.insensitiveKeySet();
+        map.put("KEYUP", "k");
+        map.put("keydown", "k");
+        map.remove("KeyDown");
+
+        Assertions.assertEquals(Set.of("keyup"), keys);
+        Assertions.assertTrue(keys.contains("keyup"));
+        Assertions.assertFalse(keys.contains("KEYUP"));
+
+        keys.removeIf("keyup"::equals);
+
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertFalse(map.containsKey("keyup"));
+    }
+
+    @Test
+    public void serializationShouldKeepCaseInsensitiveLookups() throws Exception {
+        LinkedCaseInsensitiveMap<String> map = new LinkedCaseInsensitiveMap<>();
+        map.put("Content-Type", "text/plain");
+        map.put("X-Request-Id", "1");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(map);
+        }
+        LinkedCaseInsensitiveMap<String> copy;
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (LinkedCaseInsensitiveMap<String>) input.readObject();
+        }
+
+        Assertions.assertEquals(map, copy);
+        Assertions.assertEquals("text/plain", copy.get("CONTENT-TYPE"));
+        copy.put("x-request-id", "2");
+        Assertions.assertEquals(2, copy.size());
+        Assertions.assertEquals("2", copy.get("X-Request-Id"));
+    }
+
+    @Test
+    public void cloneShouldBeIndependent() {
+        LinkedCaseInsensitiveMap<String> map = new LinkedCaseInsensitiveMap<>();
+        map.put("Content-Type", "text/plain");
+
+        LinkedCaseInsensitiveMap<String> copy = map.clone();
+        copy.remove("content-type");
+        copy.put("Accept", "*/*");
+
+        Assertions.assertEquals("text/plain", map.get("CONTENT-TYPE"));
+        Assertions.assertFalse(map.containsKey("accept"));
+        Assertions.assertFalse(copy.containsKey("content-type"));
+        Assertions.assertEquals("*/*", copy.get("ACCEPT"));
+    }
+
+    @Test
+    public void nonAsciiKeysShouldBeConvertedWithLocale() {
+        LinkedCaseInsensitiveMap<String> map = new LinkedCaseInsensitiveMap<>(Locale.ROOT);
+        map.put("Content-Type", "text/plain");
+        map.put("\u00C9clair", "1");
+
+        Assertions.assertEquals("1", map.get("\u00E9CLAIR"));
+        Assertions.assertEquals("text/plain", map.get("content-type"));
+        Assertions.assertEquals("text/plain", map.get("CONTENT-TYPE"));
+        Assertions.assertEquals(2, map.size());
+        Assertions.assertEquals(Set.of("content-type", "\u00E9clair"), map.insensitiveKeySet());
+    }
+
+    @Test
+    public void asciiKeysShouldMatchNonAsciiKeysConvertingToThem() {
+        LinkedCaseInsensitiveMap<String> map = new LinkedCaseInsensitiveMap<>(Locale.ROOT);
+        map.put("kelvin", "1");
+
+        // The Kelvin sign lower-cases to the ASCII k
+        Assertions.assertEquals("1", map.get("\u212Aelvin"));
+    }
+
+    @Test
+    public void turkishLocaleShouldConvertKeysWithDotlessI() {
+        LinkedCaseInsensitiveMap<String> map = new LinkedCaseInsensitiveMap<>(new Locale("tr"));
+        map.put("TITLE", "1");
+
+        Assertions.assertEquals("1", map.get("t\u0131tle"));
+        Assertions.assertFalse(map.containsKey("title"));
+    }
+
+    @Test
+    public void overriddenConvertKeyShouldBeUsedForLookups() {
+        LinkedCaseInsensitiveMap<String> map = new LinkedCaseInsensitiveMap<>() {
+            @Override
+            protected String convertKey(String key) {
+                return key.toLowerCase(Locale.ROOT).replace('_', '-');
+            }
+        };
+        map.put("X_Request_Id", "1");
+
+        Assertions.assertEquals("1", map.get("x-request-id"));
+        Assertions.assertTrue(map.containsKey("X-REQUEST_ID"));
+    }
 }
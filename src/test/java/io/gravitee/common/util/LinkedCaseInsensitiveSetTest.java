@@ -0,0 +1,187 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class LinkedCaseInsensitiveSetTest {
+
+    @Test
+    void should_contain_elements_ignoring_case() {
+        LinkedCaseInsensitiveSet set = new LinkedCaseInsensitiveSet(List.of("Content-Type"));
+        set.add("X-Request-Id");
+
+        assertThat(set.contains("content-type")).isTrue();
+        assertThat(set.contains("CONTENT-TYPE")).isTrue();
+        assertThat(set.contains((Object) "x-request-ID")).isTrue();
+        assertThat(set.contains("Content-Length")).isFalse();
+        assertThat(set).containsExactly("content-type", "x-request-id");
+    }
+
+    @Test
+    void should_not_add_element_equal_ignoring_case() {
+        LinkedCaseInsensitiveSet set = new LinkedCaseInsensitiveSet();
+
+        assertThat(set.add("Host")).isTrue();
+        assertThat(set.add("HOST")).isFalse();
+        assertThat(set).hasSize(1);
+    }
+
+    @Test
+    void should_contain_non_ascii_elements_ignoring_case() {
+        LinkedCaseInsensitiveSet set = new LinkedCaseInsensitiveSet(List.of("\u00c9clair"));
+
+        assertThat(set.contains("\u00e9clair")).isTrue();
+        assertThat(set.contains("\u00c9CLAIR")).isTrue();
+    }
+
+    @Test
+    void should_remove_element_ignoring_case() {
+        LinkedCaseInsensitiveSet set = new LinkedCaseInsensitiveSet(List.of("Host", "Accept"));
+
+        assertThat(set.remove("HOST")).isTrue();
+        assertThat(set.remove("host")).isFalse();
+        assertThat(set.contains("Host")).isFalse();
+        assertThat(set).containsExactly("accept");
+    }
+
+    @Test
+    void should_forget_elements_removed_through_iterator() {
+        LinkedCaseInsensitiveSet set = new LinkedCaseInsensitiveSet(List.of("Host", "Accept"));
+
+        Iterator<String> iterator = set.iterator();
+        iterator.next();
+        iterator.remove();
+
+        assertThat(set.contains("HOST")).isFalse();
+        assertThat(set.contains("ACCEPT")).isTrue();
+    }
+
+    @Test
+    void should_forget_elements_removed_in_bulk() {
+        LinkedCaseInsensitiveSet set = new LinkedCaseInsensitiveSet(List.of("Host", "Accept", "Cookie"));
+
+        set.removeIf(element -> element.startsWith("h"));
+        set.retainAll(List.of("cookie"));
+
+        assertThat(set).containsExactly("cookie");
+        assertThat(set.contains("HOST")).isFalse();
+        assertThat(set.contains("ACCEPT")).isFalse();
+        assertThat(set.contains("COOKIE")).isTrue();
+    }
+
+    @Test
+    void should_ignore_default_locale() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            LinkedCaseInsensitiveSet set = new LinkedCaseInsensitiveSet(List.of("ID"));
+            set.add("\u00c9CLAIR");
+
+            assertThat(set).containsExactly("id", "\u00e9clair");
+            assertThat(set.contains("ID")).isTrue();
+            assertThat(set.contains("id")).isTrue();
+            assertThat(set.contains("\u00e9clair")).isTrue();
+            assertThat(set.freeze().contains("ID")).isTrue();
+            assertThat(FrozenCaseInsensitiveSet.of("\u00c9CLAIR", "ID").contains("\u00e9clair")).isTrue();
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void should_forget_elements_on_clear() {
+        LinkedCaseInsensitiveSet set = new LinkedCaseInsensitiveSet(List.of("Host"));
+
+        set.clear();
+
+        assertThat(set.contains("HOST")).isFalse();
+        assertThat(set.add("Host")).isTrue();
+        assertThat(set.contains("HOST")).isTrue();
+    }
+
+    @Test
+    void should_clone_independently() {
+        LinkedCaseInsensitiveSet set = new LinkedCaseInsensitiveSet(List.of("Host"));
+
+        LinkedCaseInsensitiveSet clone = (LinkedCaseInsensitiveSet) set.clone();
+        clone.remove("HOST");
+        clone.add("Accept");
+
+        assertThat(set.contains("HOST")).isTrue();
+        assertThat(set.contains("ACCEPT")).isFalse();
+        assertThat(clone.contains("HOST")).isFalse();
+        assertThat(clone.contains("ACCEPT")).isTrue();
+    }
+
+    @Test
+    void should_contain_elements_after_deserialization() throws Exception {
+        LinkedCaseInsensitiveSet set = new LinkedCaseInsensitiveSet(List.of("Host", "\u00c9clair"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(set);
+        }
+        LinkedCaseInsensitiveSet deserialized;
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = (LinkedCaseInsensitiveSet) input.readObject();
+        }
+
+        assertThat(deserialized).containsExactly("host", "\u00e9clair");
+        assertThat(deserialized.contains("HOST")).isTrue();
+        assertThat(deserialized.contains("\u00c9CLAIR")).isTrue();
+        assertThat(deserialized.remove("hOsT")).isTrue();
+        assertThat(deserialized.contains("host")).isFalse();
+    }
+
+    @Test
+    void should_freeze_content() {
+        LinkedCaseInsensitiveSet set = new LinkedCaseInsensitiveSet(List.of("Host", "Accept"));
+
+        FrozenCaseInsensitiveSet frozen = set.freeze();
+        set.add("Cookie");
+
+        assertThat(frozen).containsExactly("host", "accept");
+        assertThat(frozen.contains("HOST")).isTrue();
+        assertThat(frozen.contains("Cookie")).isFalse();
+    }
+
+    @Test
+    void should_freeze_non_ascii_content() {
+        LinkedCaseInsensitiveSet set = new LinkedCaseInsensitiveSet(List.of("\u00c9clair", "\u212A"));
+
+        FrozenCaseInsensitiveSet frozen = set.freeze();
+
+        for (String element : List.of("\u00e9clair", "\u00c9CLAIR", "\u00e9CLAIR", "k", "K", "\u212A", "eclair")) {
+            assertThat(frozen.contains(element)).as(element).isEqualTo(set.contains(element));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link CompactMultiValueMap} with {@link LinkedMultiValueMap} on typical query parameters, most of them
+ * having a single value. Run with {@code -prof gc}: the allocation per {@code build} operation is the footprint of a
+ * map holding these parameters.
+ *
+ * @author GraviteeSource Team
+ */
+@BenchmarkMode(Mode.Throughput)
+@Measurement(iterations = 5, time = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1)
+@Warmup(iterations = 2, time = 3)
+@State(Scope.Benchmark)
+public class MultiValueMapBenchmark {
+
+    private static final String[][] PARAMETERS = {
+        { "page", "1" },
+        { "size", "20" },
+        { "sort", "name" },
+        { "sort", "-createdAt" },
+        { "q", "gravitee" },
+        { "expand", "plans" },
+        { "api-key", "5b0c9a3e-1f2d-4c6b-8a7e-9d0f1e2c3b4a" },
+        { "lang", "en" },
+    };
+
+    @Param({ "linked", "compact" })
+    public String implementation;
+
+    private MultiValueMap<String, String> map;
+
+    @Setup
+    public void setup() {
+        map = newMap();
+    }
+
+    private MultiValueMap<String, String> newMap() {
+        MultiValueMap<String, String> parameters = "linked".equals(implementation)
+            ? new LinkedMultiValueMap<>()
+            : new CompactMultiValueMap<>();
+        for (String[] parameter : PARAMETERS) {
+            parameters.add(parameter[0], parameter[1]);
+        }
+        return parameters;
+    }
+
+    @Benchmark
+    public MultiValueMap<String, String> build() {
+        return newMap();
+    }
+
+    @Benchmark
+    public void getFirst(Blackhole blackhole) {
+        for (String[] parameter : PARAMETERS) {
+            blackhole.consume(map.getFirst(parameter[0]));
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> toSingleValueMap() {
+        return map.toSingleValueMap();
+    }
+}
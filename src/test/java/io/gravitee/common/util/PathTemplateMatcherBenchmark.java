@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link PathTemplateMatcher} lookups depending on the number of registered templates, which should not
+ * matter much as lookups are linear in the length of the path.
+ *
+ * @author GraviteeSource Team
+ */
+@BenchmarkMode(Mode.Throughput)
+@Measurement(iterations = 5, time = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1)
+@Warmup(iterations = 2, time = 3)
+@State(Scope.Benchmark)
+public class PathTemplateMatcherBenchmark {
+
+    @Param({ "10", "1000", "50000" })
+    public int routes;
+
+    private PathTemplateMatcher<Integer> matcher;
+    private String[] paths;
+
+    @Setup
+    public void setup() {
+        Map<String, Integer> templates = new LinkedHashMap<>();
+        for (int i = 0; i < routes; i++) {
+            templates.put("/api-" + i + "/**", i);
+            templates.put("/api-" + i + "/v1/users/:userId", i);
+            templates.put("/api-" + i + "/v1/users/:userId/orders/:orderId", i);
+        }
+        matcher = new PathTemplateMatcher<>();
+        matcher.registerAll(templates);
+
+        int last = routes - 1;
+        paths = new String[] {
+            "/api-0/v1/users/john",
+            "/api-" + (routes / 2) + "/v1/users/john/orders/42?expand=items",
+            "/api-" + last + "/v2/unknown/resource",
+            "/unknown/path",
+        };
+    }
+
+    @Benchmark
+    public void match(Blackhole blackhole) {
+        for (String path : paths) {
+            blackhole.consume(matcher.match(path));
+        }
+    }
+
+    @Benchmark
+    public void matchAndCapture(Blackhole blackhole) {
+        PathTemplateMatcher.Match<Integer> match = matcher.match(paths[1]);
+        blackhole.consume(match.parameter("orderId"));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class PathTemplateMatcherTest {
+
+    private final PathTemplateMatcher<String> matcher = new PathTemplateMatcher<>();
+
+    @BeforeEach
+    void setUp() {
+        matcher.register("/", "root");
+        matcher.register("/apis/:apiId", "api");
+        matcher.register("/apis/search", "search");
+        matcher.register("/apis/:apiId/plans/:planId", "plan");
+        matcher.register("/apis/:apiId/plans/new", "new-plan");
+        matcher.register("/apis/*/members", "members");
+        matcher.register("/echo/**", "echo");
+    }
+
+    @ParameterizedTest
+    @CsvSource(
+        delimiter = '|',
+        value = {
+            "/                      | /",
+            "/apis/123              | /apis/:apiId",
+            "/apis/search           | /apis/search",
+            "/apis/search/plans/p1  | /apis/:apiId/plans/:planId",
+            "/apis/1/plans/new      | /apis/:apiId/plans/new",
+            "/apis/1/members        | /apis/*/members",
+            "/echo                  | /echo/**",
+            "/echo/a/b?q=1          | /echo/**",
+            "/apis/1/plans/2#top    | /apis/:apiId/plans/:planId",
+        }
+    )
+    void should_match_most_specific_template(String path, String template) {
+        assertThat(matcher.match(path).template()).isEqualTo(template);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "apis", "/apis", "/apis/", "/apis/1/plans", "/unknown" })
+    void should_not_match(String path) {
+        assertThat(matcher.match(path)).isNull();
+    }
+
+    @Test
+    void should_capture_parameters() {
+        PathTemplateMatcher.Match<String> match = matcher.match("/apis/my-api/plans/gold");
+
+        assertThat(match.value()).isEqualTo("plan");
+        assertThat(match.parameters()).isEqualTo(Map.of("apiId", "my-api", "planId", "gold"));
+        assertThat(match.parameter("planId")).isEqualTo("gold");
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = { "/echo | ''", "/echo/ | /", "/echo/a/b?q=1 | /a/b" })
+    void should_expose_path_matched_by_trailing_wildcard(String path, String remainingPath) {
+        assertThat(matcher.match(path).remainingPath()).isEqualTo(remainingPath);
+    }
+
+    @Test
+    void should_replace_and_unregister_templates() {
+        matcher.register("/echo/**", "echo-v2");
+        assertThat(matcher.match("/echo/x").value()).isEqualTo("echo-v2");
+
+        assertThat(matcher.unregister("/echo/**")).isTrue();
+        assertThat(matcher.unregister("/echo/**")).isFalse();
+        assertThat(matcher.match("/echo/x")).isNull();
+        assertThat(matcher.size()).isEqualTo(6);
+    }
+
+    @Test
+    void should_register_many_templates() {
+        Map<String, String> templates = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            templates.put("/api-" + i + "/users/:userId", "api-" + i);
+        }
+        matcher.registerAll(templates);
+
+        assertThat(matcher.match("/api-4321/users/john").value()).isEqualTo("api-4321");
+        assertThat(matcher.match("/api-4321/users/john").parameter("userId")).isEqualTo("john");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "apis", "/a/**/b", "/a/:id/:id", "/apis/:other" })
+    void should_reject_invalid_or_conflicting_templates(String template) {
+        assertThatThrownBy(() -> matcher.register(template, "invalid")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(matcher.size()).isEqualTo(7);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class QueryParametersCacheTest {
+
+    private final QueryParametersCache cache = new QueryParametersCache(10, 100);
+
+    @Test
+    void should_parse_as_uri_utils() {
+        assertThat(cache.parameters("/echo?page=1&size=2;sort=name#top")).isEqualTo(
+            URIUtils.parameters("/echo?page=1&size=2;sort=name")
+        );
+        assertThat(cache.parameters("/echo?page=1&size=2;sort=name", true)).isEqualTo(
+            URIUtils.parameters("/echo?page=1&size=2;sort=name", true)
+        );
+        assertThat(cache.parameters("/echo")).isEmpty();
+    }
+
+    @Test
+    void should_share_parameters_of_same_query() {
+        MultiValueMap<String, String> first = cache.parameters("/apis?page=1");
+        MultiValueMap<String, String> second = cache.parameters("/plans?page=1#fragment");
+
+        assertThat(second).isSameAs(first);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void should_return_unmodifiable_parameters() {
+        MultiValueMap<String, String> parameters = cache.parameters("/apis?page=1");
+
+        assertThatThrownBy(() -> parameters.add("size", "10")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> parameters.get("page").add("2")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void should_copy_parameters_into_modifiable_map() {
+        MultiValueMap<String, String> parameters = cache.parameters("/apis?page=1");
+
+        MultiValueMap<String, String> copy = new LinkedMultiValueMap<>(parameters);
+        copy.add("size", "10");
+        copy.put("page", List.of("2"));
+
+        assertThat(copy.get("size")).containsExactly("10");
+        assertThat(copy.get("page")).containsExactly("2");
+        assertThat(parameters.get("page")).containsExactly("1");
+        assertThatThrownBy(() -> parameters.add("size", "10")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> parameters.put("page", List.of("2"))).isInstanceOf(
+            UnsupportedOperationException.class
+        );
+    }
+
+    @Test
+    void should_keep_repeated_and_valueless_parameters() {
+        MultiValueMap<String, String> parameters = cache.parameters("/apis?tag=a&flag&tag=b&tag=c");
+
+        assertThat(parameters.get("tag")).containsExactly("a", "b", "c");
+        assertThat(parameters.get("flag")).containsExactly((String) null);
+        assertThatThrownBy(() -> parameters.get("tag").add("d")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void should_not_cache_queries_longer_than_maximum_length() {
+        cache.parameters("/apis?token=" + "x".repeat(100));
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void should_clear_cache() {
+        cache.parameters("/apis?page=1");
+        cache.clear();
+
+        assertThat(cache.size()).isZero();
+    }
+}
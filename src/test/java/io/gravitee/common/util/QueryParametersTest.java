@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class QueryParametersTest {
+
+    @Test
+    void should_read_parameters_by_name() {
+        QueryParameters parameters = QueryParameters.of("/echo?page=1&size=20&sort=name&sort=date&flag#fragment=1");
+
+        assertThat(parameters.size()).isEqualTo(5);
+        assertThat(parameters.getFirst("size")).isEqualTo("20");
+        assertThat(parameters.getAll("sort")).containsExactly("name", "date");
+        assertThat(parameters.contains("flag")).isTrue();
+        assertThat(parameters.getFirst("flag")).isNull();
+        assertThat(parameters.contains("fragment")).isFalse();
+        assertThat(parameters.getAll("unknown")).isEmpty();
+        assertThat(parameters.names()).containsExactly("page", "size", "sort", "flag");
+    }
+
+    @Test
+    void should_read_parameters_by_position() {
+        QueryParameters parameters = QueryParameters.of("?a=1;b");
+
+        assertThat(parameters.name(0)).isEqualTo("a");
+        assertThat(parameters.value(0)).isEqualTo("1");
+        assertThat(parameters.name(1)).isEqualTo("b");
+        assertThat(parameters.value(1)).isNull();
+        assertThatThrownBy(() -> parameters.name(2)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void should_be_empty_without_query() {
+        assertThat(QueryParameters.of("/echo").isEmpty()).isTrue();
+        assertThat(QueryParameters.of("/echo?").isEmpty()).isTrue();
+        assertThat(QueryParameters.of("/echo").toMultiValueMap()).isEmpty();
+    }
+
+    @Test
+    void should_consider_semicolon_as_normal_char() {
+        QueryParameters parameters = QueryParameters.of("?filter=a;b&c", true, false);
+
+        assertThat(parameters.getFirst("filter")).isEqualTo("a;b");
+        assertThat(parameters.size()).isEqualTo(2);
+    }
+
+    @Test
+    void should_not_decode_by_default() {
+        QueryParameters parameters = QueryParameters.of("?q=a%20b+c");
+
+        assertThat(parameters.getFirst("q")).isEqualTo("a%20b+c");
+    }
+
+    @ParameterizedTest
+    @CsvSource(
+        delimiter = '|',
+        value = {
+            "a%20b+c        | a b c",
+            "caf%C3%A9      | café",
+            "%E2%82%AC      | €",
+            "%F0%9F%98%80   | 😀",
+            "100%           | 100%",
+            "%zz%4          | %zz%4",
+            "%C3%28         | �(",
+            "%C0%80         | ��",
+        }
+    )
+    void should_decode_values(String encoded, String decoded) {
+        QueryParameters parameters = QueryParameters.of("/echo?q=" + encoded + "&other=1", false, true);
+
+        assertThat(parameters.getFirst("q")).isEqualTo(decoded);
+        assertThat(parameters.getFirst("other")).isEqualTo("1");
+    }
+
+    @Test
+    void should_match_decoded_names() {
+        QueryParameters parameters = QueryParameters.of("?user%5Bname%5D=john+doe&user%5Bname%5D=jane", false, true);
+
+        assertThat(parameters.getAll("user[name]")).containsExactly("john doe", "jane");
+        assertThat(parameters.names()).containsExactly("user[name]");
+        assertThat(parameters.toMultiValueMap().get("user[name]")).containsExactly("john doe", "jane");
+    }
+}
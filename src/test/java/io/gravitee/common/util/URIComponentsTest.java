@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.common.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * @author GraviteeSource Team
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class URIComponentsTest {
+
+    @ParameterizedTest
+    @CsvSource(
+        delimiter = '|',
+        nullValues = "null",
+        value = {
+            "https://api.gravitee.io:8443/echo?foo=bar#top | https | api.gravitee.io:8443 | /echo | foo=bar | top",
+            "/echo?foo=bar                                 | null  | null                 | /echo | foo=bar | null",
+            "/echo?#                                       | null  | null                 | /echo | ''      | ''",
+            "kafka://broker                                | kafka | broker               | ''    | null    | null",
+            "//cdn.gravitee.io/lib.js                      | null  | cdn.gravitee.io      | /lib.js | null  | null",
+            "mailto:team@gravitee.io                       | mailto | null                | team@gravitee.io | null | null",
+            "?a=b/c                                        | null  | null                 | ''    | a=b/c   | null",
+        }
+    )
+    void should_split_uri(String uri, String scheme, String authority, String path, String query, String fragment) {
+        URIComponents components = URIComponents.split(uri);
+
+        assertThat(toString(components.scheme())).isEqualTo(scheme);
+        assertThat(toString(components.authority())).isEqualTo(authority);
+        assertThat(toString(components.path())).isEqualTo(path);
+        assertThat(toString(components.query())).isEqualTo(query);
+        assertThat(toString(components.fragment())).isEqualTo(fragment);
+    }
+
+    @Test
+    void should_expose_offsets() {
+        String uri = "http://localhost/echo?q=1";
+        URIComponents components = URIComponents.split(uri);
+
+        assertThat(uri.substring(components.authorityStart(), components.authorityEnd())).isEqualTo("localhost");
+        assertThat(uri.substring(components.pathStart(), components.pathEnd())).isEqualTo("/echo");
+        assertThat(uri.substring(components.queryStart(), components.queryEnd())).isEqualTo("q=1");
+        assertThat(components.hasFragment()).isFalse();
+        assertThat(components.fragmentStart()).isEqualTo(-1);
+    }
+
+    @Test
+    void should_compare_without_copying() {
+        URIComponents components = URIComponents.split("HTTPS://api.gravitee.io/v2/apis");
+
+        assertThat(components.schemeEquals("https")).isTrue();
+        assertThat(components.schemeEquals("http")).isFalse();
+        assertThat(components.pathStartsWith("/v2/")).isTrue();
+        assertThat(components.pathStartsWith("/v1/")).isFalse();
+        assertThat(components.path().subSequence(1, 3)).hasToString("v2");
+    }
+
+    private static String toString(CharSequence value) {
+        return value == null ? null : value.toString();
+    }
+}
@@ -149,6 +149,18 @@ public class URIUtilsTest {
             assertThat(URIUtils.isAbsolute("a://api.gravitee.io/echo")).isFalse();
         }
 
+        @ParameterizedTest
+        @ValueSource(strings = { "", "ht", "http:/api.gravitee.io", "h-t://api.gravitee.io", " http://api.gravitee.io", "?u=http://a.io" })
+        public void shouldNotBeAbsoluteWithoutSchemePrefix(String url) {
+            assertThat(URIUtils.isAbsolute(url)).isFalse();
+        }
+
+        @Test
+        public void shouldBeAbsoluteWithWordCharsScheme() {
+            assertThat(URIUtils.isAbsolute("my_scheme2://host")).isTrue();
+            assertThat(URIUtils.isAbsolute("ws://")).isTrue();
+        }
+
         @Test
         public void shouldNotBeAbsoluteWithNull() {
             assertThat(URIUtils.isAbsolute(null)).isFalse();